@@ -8,6 +8,7 @@ import akka.actor.typed.receptionist.ServiceKey;
 import de.ddm.actors.patterns.Reaper;
 import de.ddm.configuration.SystemConfiguration;
 import de.ddm.serialization.AkkaSerializable;
+import de.ddm.singletons.ReaperSingleton;
 import de.ddm.singletons.SystemConfigurationSingleton;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -66,6 +67,8 @@ public class Guardian extends AbstractBehavior<Guardian.Message> {
 		this.timers = timers;
 
 		this.reaper = context.spawn(Reaper.create(), Reaper.DEFAULT_NAME);
+		// The Master and the Worker register with the reaper while they start, which may be before the reaper itself has started
+		ReaperSingleton.set(this.reaper);
 		this.master = this.isMaster() ? context.spawn(Master.create(), Master.DEFAULT_NAME) : null;
 		this.worker = context.spawn(Worker.create(), Worker.DEFAULT_NAME);
 
@@ -6,18 +6,36 @@ import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
-import akka.serialization.Serialization;
-import akka.serialization.SerializationExtension;
-import akka.serialization.Serializers;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.typed.javadsl.Adapter;
+import akka.serialization.Serialization$;
+import akka.serialization.jackson.JacksonObjectMapperProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import de.ddm.serialization.AkkaSerializable;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
 
 public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Message> {
 
@@ -31,6 +49,13 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 	public interface Message extends AkkaSerializable {
 	}
 
+	/**
+	 * Transfers of a higher priority are serialized and received before waiting transfers of a lower priority
+	 */
+	public enum Priority {
+		NORMAL, HIGH
+	}
+
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
@@ -38,6 +63,37 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private static final long serialVersionUID = -1203695340601241430L;
 		private LargeMessage message;
 		private ActorRef<Message> receiverProxy;
+		private Priority priority;
+
+		public SendMessage(LargeMessage message, ActorRef<Message> receiverProxy) {
+			this(message, receiverProxy, Priority.NORMAL);
+		}
+	}
+
+	/**
+	 * A message for a proxy in the same ActorSystem, which gets the message object itself instead of its serialized bytes; like every
+	 * message that is sent locally, it must not be changed after it was sent
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class LocalMessage implements Message {
+		private static final long serialVersionUID = 3268712505785135337L;
+		private LargeMessage message;
+	}
+
+	/**
+	 * A message whose serialized bytes fit into a single chunk, which is sent without connecting first and is not acknowledged. Its
+	 * bytes are LZ4-compressed if they are fewer than its length.
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class DirectBytesMessage implements Message {
+		private static final long serialVersionUID = -4613178630279134539L;
+		private byte[] bytes;
+		private int length;
+		private String manifest;
 	}
 
 	@Getter
@@ -47,9 +103,10 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private static final long serialVersionUID = -2368932735326858722L;
 		private int senderTransmissionKey;
 		private ActorRef<Message> senderProxy;
-		private int largeMessageSize;
-		private int serializerId;
+		private long largeMessageSize;
+		private int numChunks;
 		private String manifest;
+		private Priority priority;
 	}
 
 	@Getter
@@ -61,12 +118,18 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private int receiverTransmissionKey;
 	}
 
+	/**
+	 * A chunk of the serialized message; the chunks of a message may arrive in any order, so each one carries its number. The chunk
+	 * is LZ4-compressed if its bytes are fewer than its length.
+	 */
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class BytesMessage implements Message {
 		private static final long serialVersionUID = -8435193720156121630L;
 		private byte[] bytes;
+		private int chunk;
+		private int length;
 		private int senderTransmissionKey;
 		private int receiverTransmissionKey;
 	}
@@ -80,6 +143,18 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private int receiverTransmissionKey;
 	}
 
+	/**
+	 * Tells the sender that the receiver dropped the transfer, so that the sender releases the chunks that it still holds for it
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class AbortMessage implements Message {
+		private static final long serialVersionUID = 2915871379027765470L;
+		private int senderTransmissionKey;
+		private String reason;
+	}
+
 	////////////////////////
 	// Actor Construction //
 	////////////////////////
@@ -88,6 +163,35 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 
 	public static int MAX_MESSAGE_SIZE = 100000;
 
+	// The largest message that is sent in chunks; a receiver rejects larger transfers before it allocates anything for them
+	public static long MAX_TRANSFER_SIZE = Integer.MAX_VALUE;
+
+	// The number of chunks of one message that may be sent before the first of them is acknowledged
+	public static int WINDOW_SIZE = 16;
+
+	// Compress the chunks of large messages with LZ4; the receiver decompresses them in any case
+	public static boolean COMPRESSION = true;
+
+	// If the first chunk of a message shrinks less than this, the message is not compressible enough and all of its chunks are sent as they are
+	private static final double MAX_COMPRESSION_RATIO = 0.9;
+
+	// Hand messages to receivers in the same ActorSystem over without serializing them; switching this off sends them in chunks as well
+	public static boolean LOCAL_SHORT_CIRCUIT = true;
+
+	// The bytes that a proxy may hold for the transfers that it sends and, separately, for the transfers that it receives; a single
+	// transfer is always admitted, even if it is larger than this. A receive waits until its announced size fits. The size of a send is
+	// not known before it is serialized, so further sends are admitted while fewer bytes are buffered, and the last admitted send can
+	// exceed this by up to its own size.
+	public static long MAX_BUFFERED_BYTES = 256L * 1024 * 1024;
+
+	// Waiting receives are admitted smallest first; once a receive has waited for longer than this many milliseconds, the receives of
+	// its priority are admitted in their order of arrival instead, so that a stream of small transfers cannot starve a large one
+	public static long MAX_RECEIVE_DELAY = 5000;
+
+	private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+	// The safe decompressor never trusts the lengths that the peer claims and never reads or writes outside of the given arrays
+	private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
 	public static Behavior<Message> create(ActorRef<LargeMessage> parent) {
 		return Behaviors.setup(context -> new LargeMessageProxy(context, parent));
 	}
@@ -109,24 +213,118 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 	private final Map<Integer, SendState> pendingSends = new HashMap<>();
 	private final Map<Integer, ReceiveState> pendingReceives = new HashMap<>();
 
-	private final Serialization serialization = SerializationExtension.get(this.getContext().getSystem());
+	// The transfers that wait for buffer space: sends are not even serialized before they are admitted, and receives are not acknowledged,
+	// so their senders keep their bytes until then; both queues start with the highest priority, sends then in their order of arrival and
+	// receives with the smallest size
+	private final PriorityQueue<QueuedSend> queuedSends = new PriorityQueue<>((a, b) -> a.getMessage().getPriority() != b.getMessage().getPriority() ?
+			b.getMessage().getPriority().compareTo(a.getMessage().getPriority()) : Long.compare(a.getSequenceNumber(), b.getSequenceNumber()));
+	private final PriorityQueue<QueuedReceive> queuedReceives = new PriorityQueue<>((a, b) -> a.getMessage().getPriority() != b.getMessage().getPriority() ?
+			b.getMessage().getPriority().compareTo(a.getMessage().getPriority()) : Long.compare(a.getMessage().getLargeMessageSize(), b.getMessage().getLargeMessageSize()));
+	private long queuedSendCounter = 0;
+	private long queuedReceiveCounter = 0;
+	private long sendBufferedBytes = 0;
+	private long receiveBufferedBytes = 0;
+
+	// Messages are serialized with the mapper of the jackson-cbor binding, which all AkkaSerializables use, but streamed into and out of
+	// the chunks instead of going through one byte array that holds the entire message. This saves the contiguous array and its copies,
+	// but not the bytes themselves: the sender serializes a message completely before its first chunk is sent, and the receiver keeps all
+	// chunks until the last one arrived, so a transfer holds O(message size) bytes on either side, not O(window size). Only the sum over
+	// all transfers is bounded, by MAX_BUFFERED_BYTES.
+	private final ExtendedActorSystem system = (ExtendedActorSystem) Adapter.toClassic(this.getContext().getSystem());
+	private final ObjectMapper objectMapper = JacksonObjectMapperProvider.get(this.system).getOrCreate("jackson-cbor", Optional.of(new CBORFactory()));
+
+	// The chunks are compressed into this buffer before they are copied into a message of their compressed size
+	private byte[] compressionBuffer = new byte[0];
 
 	@Data
 	@AllArgsConstructor
 	private static class SendState {
-		private byte[] bytes;
-		private int offset;
+		// A chunk is released as soon as it is sent
+		private byte[][] chunks;
+		private long size;
+		private int nextChunk;
 		private ActorRef<Message> receiverProxy;
+		private boolean compress;
+		private long sentBytes;
+	}
+
+	@Data
+	@AllArgsConstructor
+	private static class QueuedSend {
+		private SendMessage message;
+		private long sequenceNumber;
+	}
+
+	@Data
+	@AllArgsConstructor
+	private static class QueuedReceive {
+		private ConnectMessage message;
+		private long sequenceNumber;
+		private long queueTime;
 	}
 
 	@Data
 	@AllArgsConstructor
 	private static class ReceiveState {
-		private byte[] bytes;
-		private int offset;
+		private byte[][] chunks;
+		private long size;
+		private int receivedChunks;
 		private ActorRef<Message> senderProxy;
-		private int serializerId;
 		private String manifest;
+		private long startTime;
+	}
+
+	/**
+	 * Collects the bytes that are written to it in chunks of a fixed size, which become the payloads of the BytesMessages as they are
+	 */
+	private static class ChunkOutputStream extends OutputStream {
+
+		private final int chunkSize;
+		private final List<byte[]> chunks = new ArrayList<>();
+		private byte[] chunk;
+		private int position;
+		private long size = 0;
+
+		private ChunkOutputStream(int chunkSize) {
+			this.chunkSize = Math.max(1, chunkSize);
+			this.chunk = new byte[this.chunkSize];
+		}
+
+		@Override
+		public void write(int b) {
+			if (this.position == this.chunkSize)
+				this.nextChunk();
+			this.chunk[this.position++] = (byte) b;
+			this.size++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			while (len > 0) {
+				if (this.position == this.chunkSize)
+					this.nextChunk();
+				int length = Math.min(len, this.chunkSize - this.position);
+				System.arraycopy(b, off, this.chunk, this.position, length);
+				this.position += length;
+				this.size += length;
+				off += length;
+				len -= length;
+			}
+		}
+
+		private void nextChunk() {
+			this.chunks.add(this.chunk);
+			this.chunk = new byte[this.chunkSize];
+			this.position = 0;
+		}
+
+		/**
+		 * @return all chunks, of which only the last one can be shorter than the chunk size
+		 */
+		private byte[][] toChunks() {
+			this.chunks.add(this.position == this.chunkSize ? this.chunk : Arrays.copyOf(this.chunk, this.position));
+			return this.chunks.toArray(new byte[0][]);
+		}
 	}
 
 	////////////////////
@@ -137,83 +335,325 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 	public Receive<Message> createReceive() {
 		return newReceiveBuilder()
 				.onMessage(SendMessage.class, this::handle)
+				.onMessage(LocalMessage.class, this::handle)
+				.onMessage(DirectBytesMessage.class, this::handle)
 				.onMessage(ConnectMessage.class, this::handle)
 				.onMessage(ConnectAckMessage.class, this::handle)
 				.onMessage(BytesMessage.class, this::handle)
 				.onMessage(BytesAckMessage.class, this::handle)
+				.onMessage(AbortMessage.class, this::handle)
 				.build();
 	}
 
 	private Behavior<Message> handle(SendMessage message) {
+		// A reference with a local address points into this ActorSystem
+		if (LOCAL_SHORT_CIRCUIT && message.getReceiverProxy().path().address().hasLocalScope()) {
+			message.getReceiverProxy().tell(new LocalMessage(message.getMessage()));
+			return this;
+		}
+		this.queuedSends.add(new QueuedSend(message, this.queuedSendCounter++));
+		this.admitSends();
+		return this;
+	}
+
+	private Behavior<Message> handle(LocalMessage message) {
+		this.parent.tell(message.getMessage());
+		return this;
+	}
+
+	private void admitSends() {
+		while (!this.queuedSends.isEmpty() && (this.sendBufferedBytes < MAX_BUFFERED_BYTES || this.pendingSends.isEmpty()))
+			this.startSend(this.queuedSends.poll().getMessage());
+	}
+
+	private void startSend(SendMessage message) {
 		LargeMessage largeMessage = message.getMessage();
 
-		byte[] bytes = this.serialization.serialize(largeMessage).get();
-		int serializerId = this.serialization.findSerializerFor(largeMessage).identifier();
-		String manifest = Serializers.manifestFor(this.serialization.findSerializerFor(largeMessage), largeMessage);
+		ChunkOutputStream output = new ChunkOutputStream(MAX_MESSAGE_SIZE);
+		// The serializers of ActorRefs need to know the system that serializes them
+		Serialization$.MODULE$.withTransportInformation(this.system, () -> {
+			try {
+				this.objectMapper.writeValue(output, largeMessage);
+				return null;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		byte[][] chunks = output.toChunks();
+
+		// A message that fits into one chunk needs neither the connection nor the acknowledgements of the chunked transfer
+		if (chunks.length == 1) {
+			byte[] compressedBytes = COMPRESSION ? this.compress(chunks[0]) : null;
+			byte[] bytes = compressedBytes != null && compressedBytes.length < chunks[0].length ? compressedBytes : chunks[0];
+			message.getReceiverProxy().tell(new DirectBytesMessage(bytes, chunks[0].length, largeMessage.getClass().getName()));
+			return;
+		}
+
+		if (output.size > MAX_TRANSFER_SIZE) {
+			this.getContext().getLog().error("Dropped message of class {} with {} bytes, which exceeds the transfer size of {} bytes", largeMessage.getClass().getName(), output.size, MAX_TRANSFER_SIZE);
+			return;
+		}
 
 		int senderTransmissionKey = this.messageCounter++;
-		this.pendingSends.put(senderTransmissionKey, new SendState(bytes, 0, message.getReceiverProxy()));
+		this.pendingSends.put(senderTransmissionKey, new SendState(chunks, output.size, 0, message.getReceiverProxy(), COMPRESSION, 0));
+		this.sendBufferedBytes += output.size;
 
-		message.getReceiverProxy().tell(new ConnectMessage(senderTransmissionKey, this.getContext().getSelf(), bytes.length, serializerId, manifest));
-		return this;
+		message.getReceiverProxy().tell(new ConnectMessage(senderTransmissionKey, this.getContext().getSelf(), output.size, chunks.length, largeMessage.getClass().getName(), message.getPriority()));
 	}
 
 	private Behavior<Message> handle(ConnectMessage message) {
-		int receiverTransmissionKey = this.messageCounter++;
-		this.pendingReceives.put(receiverTransmissionKey, new ReceiveState(new byte[message.getLargeMessageSize()], 0, message.getSenderProxy(), message.getSerializerId(), message.getManifest()));
+		// The size and the number of chunks are claimed by the peer, and the chunks of a transfer are allocated as soon as it is admitted
+		long size = message.getLargeMessageSize();
+		String reason = null;
+		if (size <= 0 || size > MAX_TRANSFER_SIZE || message.getNumChunks() != (size + MAX_MESSAGE_SIZE - 1) / MAX_MESSAGE_SIZE)
+			reason = "Invalid transfer of " + size + " bytes in " + message.getNumChunks() + " chunks";
+		else {
+			try {
+				this.messageClass(message.getManifest());
+			} catch (IllegalArgumentException e) {
+				reason = e.getMessage();
+			}
+		}
+		if (reason != null) {
+			this.getContext().getLog().error("Rejected transfer {} from {}: {}", message.getSenderTransmissionKey(), message.getSenderProxy(), reason);
+			message.getSenderProxy().tell(new AbortMessage(message.getSenderTransmissionKey(), reason));
+			return this;
+		}
 
-		message.getSenderProxy().tell(new ConnectAckMessage(message.getSenderTransmissionKey(), receiverTransmissionKey));
+		this.queuedReceives.add(new QueuedReceive(message, this.queuedReceiveCounter++, System.currentTimeMillis()));
+		this.admitReceives();
 		return this;
 	}
 
+	private void admitReceives() {
+		while (!this.queuedReceives.isEmpty()) {
+			// A receive that does not fit yet keeps all receives after it waiting, so the bytes that are freed are left to it
+			QueuedReceive queuedReceive = this.nextReceive();
+			if (this.receiveBufferedBytes + queuedReceive.getMessage().getLargeMessageSize() > MAX_BUFFERED_BYTES && !this.pendingReceives.isEmpty())
+				return;
+			this.queuedReceives.remove(queuedReceive);
+
+			ConnectMessage message = queuedReceive.getMessage();
+			int receiverTransmissionKey = this.messageCounter++;
+			this.pendingReceives.put(receiverTransmissionKey, new ReceiveState(new byte[message.getNumChunks()][], message.getLargeMessageSize(), 0, message.getSenderProxy(), message.getManifest(), System.currentTimeMillis()));
+			this.receiveBufferedBytes += message.getLargeMessageSize();
+
+			message.getSenderProxy().tell(new ConnectAckMessage(message.getSenderTransmissionKey(), receiverTransmissionKey));
+		}
+	}
+
+	/**
+	 * @return the smallest waiting receive of the highest priority or, if a receive of that priority has waited for longer than
+	 * MAX_RECEIVE_DELAY, the receive of that priority that arrived first
+	 */
+	private QueuedReceive nextReceive() {
+		QueuedReceive next = this.queuedReceives.peek();
+		QueuedReceive oldest = next;
+		for (QueuedReceive queuedReceive : this.queuedReceives)
+			if (queuedReceive.getMessage().getPriority() == next.getMessage().getPriority() && queuedReceive.getSequenceNumber() < oldest.getSequenceNumber())
+				oldest = queuedReceive;
+		return System.currentTimeMillis() - oldest.getQueueTime() > MAX_RECEIVE_DELAY ? oldest : next;
+	}
+
 	private Behavior<Message> handle(ConnectAckMessage message) {
-		return this.sendNext(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey());
+		// We fill the whole window right away; afterwards, every acknowledged chunk frees the window for the next one
+		for (int chunk = 0; chunk < WINDOW_SIZE && this.pendingSends.containsKey(message.getSenderTransmissionKey()); chunk++)
+			this.sendNext(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey());
+		this.admitSends();
+		return this;
 	}
 
 	private Behavior<Message> handle(BytesAckMessage message) {
-		return this.sendNext(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey());
+		// The acknowledgements of the last chunks arrive after all chunks were sent
+		if (this.pendingSends.containsKey(message.getSenderTransmissionKey()))
+			this.sendNext(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey());
+		this.admitSends();
+		return this;
 	}
 
-	private Behavior<Message> sendNext(int senderTransmissionKey, int receiverTransmissionKey) {
-		ActorRef<Message> receiverProxy = this.pendingSends.get(senderTransmissionKey).getReceiverProxy();
-
+	private void sendNext(int senderTransmissionKey, int receiverTransmissionKey) {
 		SendState state = this.pendingSends.get(senderTransmissionKey);
-
-		byte[] bytes = state.getBytes();
-		int startOffset = state.getOffset();
-		int endOffset = Math.min(startOffset + MAX_MESSAGE_SIZE, bytes.length);
-
-		byte[] nextBytes = Arrays.copyOfRange(bytes, startOffset, endOffset);
-		state.setOffset(endOffset);
-
-		if (endOffset == bytes.length)
+		ActorRef<Message> receiverProxy = state.getReceiverProxy();
+
+		int chunk = state.getNextChunk();
+		byte[] bytes = state.getChunks()[chunk];
+		state.getChunks()[chunk] = null;
+		state.setNextChunk(chunk + 1);
+		this.sendBufferedBytes -= bytes.length;
+
+		byte[] nextBytes = state.isCompress() ? this.compress(bytes) : null;
+		if (chunk == 0 && nextBytes != null && nextBytes.length > MAX_COMPRESSION_RATIO * bytes.length)
+			state.setCompress(false);
+		if (nextBytes == null || nextBytes.length >= bytes.length)
+			nextBytes = bytes;
+		state.setSentBytes(state.getSentBytes() + nextBytes.length);
+
+		if (state.getNextChunk() == state.getChunks().length) {
 			this.pendingSends.remove(senderTransmissionKey);
+			this.getContext().getLog().debug("Sent {} bytes as {} bytes (compression ratio {}, saved {} bytes)", state.getSize(), state.getSentBytes(),
+					String.format("%.2f", state.getSize() == 0 ? 1.0 : (double) state.getSentBytes() / state.getSize()), state.getSize() - state.getSentBytes());
+		}
 
-		receiverProxy.tell(new BytesMessage(nextBytes, senderTransmissionKey, receiverTransmissionKey));
+		receiverProxy.tell(new BytesMessage(nextBytes, chunk, bytes.length, senderTransmissionKey, receiverTransmissionKey));
+	}
+
+	private Behavior<Message> handle(AbortMessage message) {
+		// The receiver may drop a transfer after we sent its last chunk, and then we hold nothing for it anymore
+		SendState state = this.pendingSends.remove(message.getSenderTransmissionKey());
+		if (state == null)
+			return this;
+		this.getContext().getLog().warn("Transfer {} to {} was aborted by the receiver: {}", message.getSenderTransmissionKey(), state.getReceiverProxy(), message.getReason());
+		for (byte[] chunk : state.getChunks())
+			if (chunk != null)
+				this.sendBufferedBytes -= chunk.length;
+		this.admitSends();
 		return this;
 	}
 
+	/**
+	 * @return the compressed bytes of the chunk
+	 */
+	private byte[] compress(byte[] bytes) {
+		if (this.compressionBuffer.length < COMPRESSOR.maxCompressedLength(bytes.length))
+			this.compressionBuffer = new byte[COMPRESSOR.maxCompressedLength(bytes.length)];
+		int compressedLength = COMPRESSOR.compress(bytes, 0, bytes.length, this.compressionBuffer, 0, this.compressionBuffer.length);
+		return Arrays.copyOf(this.compressionBuffer, compressedLength);
+	}
+
 	private Behavior<Message> handle(BytesMessage message) {
 		ReceiveState receiveState = this.pendingReceives.get(message.getReceiverTransmissionKey());
+		if (receiveState == null) {
+			this.getContext().getLog().warn("Dropped chunk {} of unknown transfer {}", message.getChunk(), message.getReceiverTransmissionKey());
+			return this;
+		}
 
-		byte[] bytes = receiveState.getBytes();
-		int offset = receiveState.getOffset();
-
-		System.arraycopy(message.getBytes(), 0, bytes, offset, message.getBytes().length);
-
-		receiveState.setOffset(offset + message.getBytes().length);
+		// Uncompressed chunks are kept as they arrived
+		byte[] bytes;
+		try {
+			if (message.getChunk() < 0 || message.getChunk() >= receiveState.getChunks().length || receiveState.getChunks()[message.getChunk()] != null)
+				throw new LZ4Exception("Invalid chunk " + message.getChunk() + " of " + receiveState.getChunks().length + " chunks");
+			bytes = decompress(message.getBytes(), message.getLength());
+		} catch (LZ4Exception e) {
+			// A malformed chunk fails only its own transfer, not the proxy and its other transfers
+			this.getContext().getLog().error("Dropped transfer {} from {}: {}", message.getReceiverTransmissionKey(), receiveState.getSenderProxy(), e.getMessage());
+			this.pendingReceives.remove(message.getReceiverTransmissionKey());
+			this.receiveBufferedBytes -= receiveState.getSize();
+			receiveState.getSenderProxy().tell(new AbortMessage(message.getSenderTransmissionKey(), e.getMessage()));
+			this.admitReceives();
+			return this;
+		}
+		receiveState.getChunks()[message.getChunk()] = bytes;
+		receiveState.setReceivedChunks(receiveState.getReceivedChunks() + 1);
 
-		if (receiveState.getOffset() != bytes.length) {
+		if (receiveState.getReceivedChunks() != receiveState.getChunks().length) {
 			receiveState.getSenderProxy().tell(new BytesAckMessage(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey()));
 			return this;
 		}
 
 		this.pendingReceives.remove(message.getReceiverTransmissionKey());
+		this.receiveBufferedBytes -= receiveState.getSize();
+		this.admitReceives();
+
+		long transferTime = Math.max(1, System.currentTimeMillis() - receiveState.getStartTime());
+		this.getContext().getLog().debug("Received {} bytes in {} chunks within {} ms ({} KB/s)", receiveState.getSize(), receiveState.getReceivedChunks(), transferTime, receiveState.getSize() / transferTime);
+
+		// Each chunk is released as soon as the deserializer moves on to the next one
+		byte[][] chunks = receiveState.getChunks();
+		Enumeration<InputStream> chunkStreams = new Enumeration<>() {
+			private int chunk = 0;
+
+			@Override
+			public boolean hasMoreElements() {
+				return this.chunk < chunks.length;
+			}
+
+			@Override
+			public InputStream nextElement() {
+				InputStream chunkStream = new ByteArrayInputStream(chunks[this.chunk]);
+				chunks[this.chunk++] = null;
+				return chunkStream;
+			}
+		};
+
+		try {
+			this.parent.tell(this.deserialize(new SequenceInputStream(chunkStreams), receiveState.getManifest()));
+		} catch (UncheckedIOException | IllegalArgumentException e) {
+			this.getContext().getLog().error("Dropped message of class {} from {}: {}", receiveState.getManifest(), receiveState.getSenderProxy(), e.getMessage());
+		}
+		return this;
+	}
 
-		LargeMessage largeMessage = (LargeMessage) this.serialization.deserialize(bytes, receiveState.getSerializerId(), receiveState.getManifest()).get();
+	private Behavior<Message> handle(DirectBytesMessage message) {
+		byte[] bytes;
+		try {
+			bytes = decompress(message.getBytes(), message.getLength());
+		} catch (LZ4Exception e) {
+			this.getContext().getLog().error("Dropped direct message of class {}: {}", message.getManifest(), e.getMessage());
+			return this;
+		}
 
-		this.parent.tell(largeMessage);
+		try {
+			this.parent.tell(this.deserialize(new ByteArrayInputStream(bytes), message.getManifest()));
+		} catch (UncheckedIOException | IllegalArgumentException e) {
+			this.getContext().getLog().error("Dropped direct message of class {}: {}", message.getManifest(), e.getMessage());
+		}
 		return this;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * @param length the uncompressed length of the chunk, which is claimed by the peer and therefore checked
+	 * @return the bytes themselves if they are not fewer than the length, otherwise exactly the length many decompressed bytes
+	 * @throws LZ4Exception if the length is impossible or the bytes do not decompress into exactly that many bytes
+	 */
+	private static byte[] decompress(byte[] bytes, int length) {
+		if (length < 0 || length > MAX_MESSAGE_SIZE)
+			throw new LZ4Exception("Invalid chunk length " + length);
+		if (bytes.length >= length) {
+			if (bytes.length != length)
+				throw new LZ4Exception("Chunk of " + bytes.length + " bytes claims a length of " + length);
+			return bytes;
+		}
+		byte[] decompressed = new byte[length];
+		int decompressedLength = DECOMPRESSOR.decompress(bytes, 0, bytes.length, decompressed, 0);
+		if (decompressedLength != length)
+			throw new LZ4Exception("Chunk decompressed into " + decompressedLength + " instead of " + length + " bytes");
+		return decompressed;
+	}
+
+	/**
+	 * @param manifest the class of the message
+	 * @throws UncheckedIOException if the bytes are not a message of that class
+	 * @throws IllegalArgumentException if the manifest does not name a LargeMessage
+	 */
+	private LargeMessage deserialize(InputStream input, String manifest) {
+		Class<? extends LargeMessage> messageClass = this.messageClass(manifest);
+		// The deserializers of ActorRefs need to know the system that resolves them
+		return Serialization$.MODULE$.withTransportInformation(this.system, () -> {
+			try (input) {
+				return this.objectMapper.readValue(input, messageClass);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * The manifest is claimed by the peer, so its class is only loaded, not initialized, until we know that it is a LargeMessage; the
+	 * LargeMessages are AkkaSerializables, which are the classes that Akka binds to the jackson-cbor serializer
+	 *
+	 * @throws IllegalArgumentException if the manifest does not name a LargeMessage
+	 */
+	private Class<? extends LargeMessage> messageClass(String manifest) {
+		if (manifest == null)
+			throw new IllegalArgumentException("Missing message class");
+		Class<?> messageClass;
+		try {
+			messageClass = Class.forName(manifest, false, this.system.dynamicAccess().classLoader());
+		} catch (ClassNotFoundException | LinkageError e) {
+			throw new IllegalArgumentException("Unknown message class " + manifest, e);
+		}
+		if (!LargeMessage.class.isAssignableFrom(messageClass))
+			throw new IllegalArgumentException("Class " + manifest + " is not a LargeMessage");
+		return messageClass.asSubclass(LargeMessage.class);
+	}
+}
@@ -49,8 +49,6 @@ public class Reaper extends AbstractBehavior<Reaper.Message> {
 
 	private Reaper(ActorContext<Message> context) {
 		super(context);
-
-		ReaperSingleton.set(this.getContext().getSelf());
 	}
 
 	/////////////////
@@ -1,30 +1,48 @@
 package de.ddm.actors.profiling;
 
 import de.ddm.serialization.AkkaSerializable;
+import de.ddm.singletons.DomainConfigurationSingleton;
+import de.ddm.structures.BloomFilter;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 
-import java.io.Serializable;
-import java.util.HashSet;
+import java.util.Arrays;
 
 public class Column implements AkkaSerializable {
     private static final long serialVersionUID = -8025238529984914107L;
     private int id;
-    private HashSet<String> values;
+    // The distinct values of this column as sorted ids of the miner's ValueDictionary
+    private int[] values;
     private String columnName;
     private String nameOfFile;
+    // Statistics over the distinct non-null values that are collected while the column is read; they are used to prune candidates
+    private String minValue;
+    private String maxValue;
+    private ValueType valueType = ValueType.INTEGER;
+    private int nonNullValues;
+    private long totalLength;
+    private int maxLength;
+    // A sketch of all value ids that refutes candidates by comparing bits instead of values
+    private BloomFilter bloomFilter;
+    // Collects the value ids while the column is still being read; it is released when the column gets sealed
+    private transient IntOpenHashSet valueIds;
 
+    public Column() {
+    }
 
     public Column(int id, String columnName, String nameOfFile) {
         this.id = id;
-        this.values = new HashSet<>();
+        this.values = new int[0];
         this.columnName = columnName;
         this.nameOfFile = nameOfFile;
+        this.valueIds = new IntOpenHashSet();
+        this.bloomFilter = new BloomFilter(DomainConfigurationSingleton.get().getBloomFilterSizeInBits(), DomainConfigurationSingleton.get().getBloomFilterHashFunctions());
     }
 
     public int getId() {
         return id;
     }
 
-    public HashSet<String> getValues() {
+    public int[] getValues() {
         return values;
     }
 
@@ -35,7 +53,105 @@ public class Column implements AkkaSerializable {
     public String getNameOfFile() {
         return nameOfFile;
     }
-    public void addValueToColumn(String value){
-        this.values.add(value);
+
+    public String getMinValue() {
+        return minValue;
+    }
+
+    public String getMaxValue() {
+        return maxValue;
+    }
+
+    public ValueType getValueType() {
+        return valueType;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * @param valueId the id of the value in the miner's ValueDictionary
+     * @param value the value itself, which is only looked at if it is new to this column
+     */
+    public void addValueToColumn(int valueId, String value){
+        if (!this.valueIds.add(valueId))
+            return;
+        this.bloomFilter.add(valueId);
+        if (value != null) {
+            if (this.minValue == null || value.compareTo(this.minValue) < 0)
+                this.minValue = value;
+            if (this.maxValue == null || value.compareTo(this.maxValue) > 0)
+                this.maxValue = value;
+            this.valueType = this.valueType.widen(ValueType.of(value));
+            this.nonNullValues++;
+            this.totalLength += value.length();
+            this.maxLength = Math.max(this.maxLength, value.length());
+        }
+    }
+
+    public int distinctCount(){
+        return this.valueIds != null ? this.valueIds.size() : this.values.length;
+    }
+
+    /**
+     * @return the average length of the distinct non-null values of this column
+     */
+    public double averageLength(){
+        return this.nonNullValues == 0 ? 0 : (double) this.totalLength / this.nonNullValues;
+    }
+
+    /**
+     * Turns the collected value ids into the sorted array that is used for all checks; no values can be added afterwards.
+     */
+    public void seal(){
+        if (this.valueIds == null)
+            return;
+        this.values = this.valueIds.toIntArray();
+        Arrays.sort(this.values);
+        this.valueIds = null;
+    }
+
+    /**
+     * @return the approximate number of bytes that this column occupies on the heap
+     */
+    public long estimatedSizeInBytes(){
+        return 64L + 4L * this.values.length + (this.bloomFilter == null ? 0 : this.bloomFilter.sizeInBytes());
+    }
+
+    /**
+     * @param numBuckets the number of partitions
+     * @return this column split into numBuckets columns, each holding the values whose hash falls into that bucket
+     */
+    public Column[] partition(int numBuckets){
+        int[] bucketSizes = new int[numBuckets];
+        for (int value : this.values)
+            bucketSizes[bucketOf(value, numBuckets)]++;
+        Column[] buckets = new Column[numBuckets];
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            buckets[bucket] = new Column();
+            buckets[bucket].id = this.id;
+            buckets[bucket].values = new int[bucketSizes[bucket]];
+            buckets[bucket].columnName = this.columnName;
+            buckets[bucket].nameOfFile = this.nameOfFile;
+        }
+        // The values stay sorted, because they are distributed in their original order
+        int[] positions = new int[numBuckets];
+        for (int value : this.values) {
+            int bucket = bucketOf(value, numBuckets);
+            buckets[bucket].values[positions[bucket]++] = value;
+        }
+        return buckets;
+    }
+
+    static int bucketOf(int value, int numBuckets){
+        // The ids are dense and assigned in reading order, so we scramble them before taking the remainder
+        int hash = value * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, numBuckets);
     }
 }
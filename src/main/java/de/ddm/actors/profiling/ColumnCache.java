@@ -0,0 +1,48 @@
+package de.ddm.actors.profiling;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the columns that a DependencyWorker has already received, so that they do not need to be sent again for
+ * every task. The cache is bounded by a memory budget and evicts the least recently used columns first.
+ */
+public class ColumnCache {
+
+	private final long capacityInBytes;
+	private long sizeInBytes = 0;
+
+	private final LinkedHashMap<Integer, Column> columns = new LinkedHashMap<>(16, 0.75f, true);
+
+	public ColumnCache(long capacityInBytes) {
+		this.capacityInBytes = capacityInBytes;
+	}
+
+	/**
+	 * @param columnId the id of the requested column
+	 * @return the cached column or null if it is not cached
+	 */
+	public Column get(int columnId) {
+		return this.columns.get(columnId);
+	}
+
+	public void put(Column column) {
+		Column previous = this.columns.put(column.getId(), column);
+		if (previous != null)
+			this.sizeInBytes -= previous.estimatedSizeInBytes();
+		this.sizeInBytes += column.estimatedSizeInBytes();
+
+		// Evict the least recently used columns, but never the column that was just added
+		Iterator<Map.Entry<Integer, Column>> iterator = this.columns.entrySet().iterator();
+		while (this.sizeInBytes > this.capacityInBytes && this.columns.size() > 1) {
+			Column evicted = iterator.next().getValue();
+			iterator.remove();
+			this.sizeInBytes -= evicted.estimatedSizeInBytes();
+		}
+	}
+
+	public int size() {
+		return this.columns.size();
+	}
+}
@@ -2,27 +2,47 @@ package de.ddm.actors.profiling;
 
 import akka.actor.typed.ActorRef;
 import akka.actor.typed.Behavior;
+import akka.actor.typed.DispatcherSelector;
+import akka.actor.typed.PostStop;
 import akka.actor.typed.Terminated;
 import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
+import akka.actor.typed.javadsl.TimerScheduler;
 import akka.actor.typed.receptionist.Receptionist;
 import akka.actor.typed.receptionist.ServiceKey;
+import com.opencsv.exceptions.CsvValidationException;
 import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.InputFormat;
 import de.ddm.serialization.AkkaSerializable;
+import de.ddm.singletons.DomainConfigurationSingleton;
 import de.ddm.singletons.InputConfigurationSingleton;
 import de.ddm.singletons.SystemConfigurationSingleton;
+import de.ddm.structures.ColumnStore;
 import de.ddm.structures.InclusionDependency;
+import de.ddm.structures.ProfilingState;
+import de.ddm.structures.ValueDictionary;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 
@@ -47,13 +67,43 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 		String[] header;
 	}
 
+	/**
+	 * A batch of rows of one byte range of a file, transposed into its columns. Unless we discover n-ary INDs, the reader leaves out
+	 * all values of a column that it already sent, so columns[i] only contains values that are new to the reader. A batch without rows
+	 * means that the reader reached the end of its range. A reader of the column store sends the stored values of one column per
+	 * batch instead, and numRows is their number.
+	 */
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class BatchMessage implements Message {
 		private static final long serialVersionUID = 4591192372652568030L;
 		int id;
-		List<String[]> batch;
+		int readerId;
+		int numRows;
+		String[][] columns;
+	}
+
+	/**
+	 * The split offsets of a file, which the Miner finds off its own thread, because that reads the entire file; failure is set if the
+	 * file could not be read.
+	 */
+	/**
+	 * In DISTRIBUTED mode, the time for the workers to register is over
+	 */
+	@NoArgsConstructor
+	public static class JoinDeadlineMessage implements Message {
+		private static final long serialVersionUID = -5173290553860723716L;
+	}
+
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SplitOffsetsMessage implements Message {
+		private static final long serialVersionUID = 2204783391840245612L;
+		int id;
+		long[] splitOffsets;
+		Throwable failure;
 	}
 
 	@Getter
@@ -70,14 +120,35 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class CompletionMessage implements Message {
-		// this is the Message which Dependency worker sends to Miner when the worker finished comparing two columns
+		// this is the Message which Dependency worker sends to Miner when the worker finished checking a batch of candidates
 		// and asks for another task if available
 		private static final long serialVersionUID = -7642425159675583598L;
 		ActorRef<DependencyWorker.Message> dependencyWorker;
 		int taskID;
-		Column column1;
-		Column column2;
-		boolean foundIND;
+		// bit i is set if the i-th candidate of the task is a valid IND
+		long[] foundINDs;
+	}
+
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ColumnRequestMessage implements Message {
+		// this is the Message which Dependency worker sends to Miner when it needs columns that are not in its cache
+		private static final long serialVersionUID = 1427019633962781458L;
+		ActorRef<DependencyWorker.Message> dependencyWorker;
+		int[] columnIds;
+	}
+
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SpiderResultMessage implements Message {
+		// this is the Message which a Dependency worker sends to Miner after validating all candidates (of one bucket) in SPIDER or BINDER mode
+		private static final long serialVersionUID = 5484212563806046571L;
+		ActorRef<DependencyWorker.Message> dependencyWorker;
+		int taskID;
+		// for every dependent column the bits of the referenced columns that include it
+		long[][] referencedColumns;
 	}
 
 	////////////////////////
@@ -89,18 +160,77 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	public static final ServiceKey<DependencyMiner.Message> dependencyMinerService = ServiceKey.create(DependencyMiner.Message.class, DEFAULT_NAME + "Service");
 
 	public static Behavior<Message> create() {
-		return Behaviors.setup(DependencyMiner::new);
+		return Behaviors.setup(context -> Behaviors.withTimers(timers -> new DependencyMiner(context, timers)));
 	}
 
-	private DependencyMiner(ActorContext<Message> context) {
+	private DependencyMiner(ActorContext<Message> context, TimerScheduler<Message> timers) throws IOException, CsvValidationException {
 		super(context);
-		this.discoverNaryDependencies = SystemConfigurationSingleton.get().isHardMode();
+		this.timers = timers;
+		this.validationStrategy = SystemConfigurationSingleton.get().getValidationStrategy();
+		this.discoveryMode = SystemConfigurationSingleton.get().getDiscoveryMode();
+		// The n-ary INDs are validated on the rows of the files, which the master never sees in DISTRIBUTED mode
+		this.discoverNaryDependencies = SystemConfigurationSingleton.get().isHardMode() && this.discoveryMode != DiscoveryMode.DISTRIBUTED;
+		if (SystemConfigurationSingleton.get().isHardMode() && !this.discoverNaryDependencies)
+			this.getContext().getLog().warn("N-ary INDs cannot be discovered in {} mode; discovering only unary INDs", this.discoveryMode);
+		// Spilled columns are only read as sorted streams, which neither the n-ary discovery nor the workers in DISTRIBUTED mode can use
+		boolean spill = SystemConfigurationSingleton.get().getSpillMemoryBudget() > 0 && !SystemConfigurationSingleton.get().isHardMode() && this.discoveryMode != DiscoveryMode.DISTRIBUTED;
+		if (SystemConfigurationSingleton.get().getSpillMemoryBudget() > 0 && !spill)
+			this.getContext().getLog().warn("Columns cannot be spilled to disk in hard mode or in DISTRIBUTED mode; keeping all values in memory");
+		this.spillMemoryBudget = spill ? SystemConfigurationSingleton.get().getSpillMemoryBudget() * 1024L * 1024L : 0;
+		this.spillDirectory = spill ? Files.createTempDirectory("ddm-spill").toFile() : null;
+		// Only the results of unary INDs in PAIRWISE mode can be carried over from one run to the next
+		this.incremental = SystemConfigurationSingleton.get().isIncremental() && this.discoveryMode == DiscoveryMode.PAIRWISE && !this.discoverNaryDependencies && !spill;
+		if (SystemConfigurationSingleton.get().isIncremental() && !this.incremental)
+			this.getContext().getLog().warn("Incremental profiling only works for unary INDs in PAIRWISE mode without spilling; profiling from scratch");
+		this.numBuckets = SystemConfigurationSingleton.get().getNumBuckets();
+		this.expectedWorkers = SystemConfigurationSingleton.get().getExpectedWorkers() > 0 ? SystemConfigurationSingleton.get().getExpectedWorkers() : SystemConfigurationSingleton.get().getNumWorkers();
 		this.inputFiles = InputConfigurationSingleton.get().getInputFiles();
 		this.headerLines = new String[this.inputFiles.length][];
+		this.fileRows = new IntArrayList[this.inputFiles.length][];
+		this.fileLengths = new long[this.inputFiles.length];
+		// The column store only holds the distinct values of each column, so it cannot replace the rows that the n-ary discovery needs
+		boolean useColumnStore = SystemConfigurationSingleton.get().isColumnStore() && !this.discoverNaryDependencies && this.discoveryMode != DiscoveryMode.DISTRIBUTED && !spill;
+		if (SystemConfigurationSingleton.get().isColumnStore() && !useColumnStore)
+			this.getContext().getLog().warn("The column store cannot be used in hard mode, in DISTRIBUTED mode or when spilling; parsing all files");
+		this.columnStore = useColumnStore ? new ColumnStore(Files.createDirectories(new File(DomainConfigurationSingleton.get().getColumnStoreDirectoryName()).toPath()).toFile()) : null;
+		this.storedFiles = new boolean[this.inputFiles.length];
+		ProfilingState previousState = this.incremental ? this.readPreviousState() : null;
+		int completeFiles = 0;
 
+		// Large files are split into byte ranges that several readers parse in parallel; in DISTRIBUTED mode, the workers read them instead
 		this.inputReaders = new ArrayList<>(inputFiles.length);
-		for (int id = 0; id < this.inputFiles.length; id++)
-			this.inputReaders.add(context.spawn(InputReader.create(id, this.inputFiles[id]), InputReader.DEFAULT_NAME + "_" + id));
+		this.pendingSplits = new int[this.inputFiles.length];
+		this.splitOffsets = new long[this.inputFiles.length][];
+		long splitSize = DomainConfigurationSingleton.get().getInputReaderSplitSizeInBytes();
+		for (int id = 0; id < this.inputFiles.length && this.discoveryMode == DiscoveryMode.DISTRIBUTED; id++)
+			this.scanSplitOffsets(id, splitSize);
+		for (int id = 0; id < this.inputFiles.length && this.discoveryMode != DiscoveryMode.DISTRIBUTED; id++) {
+			this.fileLengths[id] = this.inputFiles[id].length();
+			File storedColumns = null;
+			if (previousState != null && this.continueFromPreviousState(id, previousState.getFiles().get(this.inputFiles[id].getName()))) {
+				// Only the appended rows need to be read, which is usually little enough for one reader
+				long previousLength = previousState.getFiles().get(this.inputFiles[id].getName()).getLength();
+				this.getContext().getLog().info("Reading only the {} bytes that were appended to file {}", this.fileLengths[id] - previousLength, this.inputFiles[id].getName());
+				if (previousLength == this.fileLengths[id]) {
+					completeFiles++;
+					continue;
+				}
+				this.splitOffsets[id] = new long[]{previousLength, this.fileLengths[id]};
+			} else if (this.columnStore != null && (storedColumns = this.columnStore.locate(this.inputFiles[id])) != null) {
+				// The file did not change since its columns were stored, so one reader loads them instead of parsing the file
+				this.getContext().getLog().info("Loading the columns of file {} from the column store", this.inputFiles[id].getName());
+				int readerId = this.inputReaders.size();
+				this.inputReaders.add(context.spawn(InputReader.createFromColumnStore(id, readerId, this.inputFiles[id], this.columnStore, storedColumns), InputReader.DEFAULT_NAME + "_" + readerId));
+				this.pendingSplits[id]++;
+				this.storedFiles[id] = true;
+				continue;
+			} else {
+				// The readers of the file are spawned once its splits were found
+				this.scanSplitOffsets(id, splitSize);
+				continue;
+			}
+			this.spawnInputReaders(id);
+		}
 		this.resultCollector = context.spawn(ResultCollector.create(), ResultCollector.DEFAULT_NAME);
 		this.largeMessageProxy = this.getContext().spawn(LargeMessageProxy.create(this.getContext().getSelf().unsafeUpcast()), LargeMessageProxy.DEFAULT_NAME);
 		// here we store LargeMessageProxy of all workers which the Minor creates
@@ -108,7 +238,7 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 		this.dependencyWorkers = new ArrayList<>();
 		// we use this counter to see how many of the CSV files are already read and how many are not
 
-		this.fileCounter = inputFiles.length;
+		this.fileCounter = inputFiles.length - completeFiles;
 
 		context.getSystem().receptionist().tell(Receptionist.register(dependencyMinerService, context.getSelf()));
 	}
@@ -120,24 +250,87 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	private long startTime;
 
 	private final boolean discoverNaryDependencies;
+	private final ValidationStrategy validationStrategy;
+	private final DiscoveryMode discoveryMode;
+	private final TimerScheduler<Message> timers;
+	private final int numBuckets;
+	// In DISTRIBUTED mode, the workers read the input once this many workers registered or the join deadline passed; 0 means only the deadline counts
+	private final int expectedWorkers;
+	private boolean joinDeadlinePassed = false;
 	private final File[] inputFiles;
 	private final String[][] headerLines;
 
 	private final List<ActorRef<InputReader.Message>> inputReaders;
+	// The split offsets of every file, as far as they were found already, and the number of files whose splits are still being searched
+	private final long[][] splitOffsets;
+	private int pendingScans = 0;
+	// The readers have been asked for their headers and first batches, so readers that are spawned later need to be asked right away
+	private boolean readingStarted = false;
 	private final ActorRef<ResultCollector.Message> resultCollector;
 	private final ActorRef<LargeMessageProxy.Message> largeMessageProxy;
 
 	private final List<ActorRef<DependencyWorker.Message>> dependencyWorkers;
 	// After reading all Batches we save all the Columns here in this Hashmap. The key is the Name of the Column and Value is the Column Object which contains the data.
 	private HashMap<String,Column> columnHashMap = new HashMap<>();
-	// Here we save all Tasks to know how many tasks are there in total
-
-	private List<DependencyWorker.TaskMessage> taskMessageList = new ArrayList<>();
+	// All columns in the order in which they were created; the position of a column is its id
+	private final List<Column> columns = new ArrayList<>();
+	// Every distinct value of all files gets one id in this dictionary, so that the columns only store sorted int arrays
+	private final ValueDictionary valueDictionary = new ValueDictionary();
+	// Here we save the referenced and dependent column ids of all candidates, grouped by their dependent column; task i checks the candidates from taskStarts[i] to taskStarts[i + 1]
+	private final IntArrayList candidateReferencedColumns = new IntArrayList();
+	private final IntArrayList candidateDependentColumns = new IntArrayList();
+	private final IntArrayList taskStarts = new IntArrayList();
+	private final int taskBatchSize = DomainConfigurationSingleton.get().getDependencyWorkerTaskBatchSize();
+	private final int tasksInFlightPerWorker = DomainConfigurationSingleton.get().getDependencyWorkerTasksInFlight();
+	private final int readerBatchesInFlight = Math.max(1, SystemConfigurationSingleton.get().getBatchesInFlight());
+	// How long the Miner waited for batches while reading the files, i.e., the time between processing one batch and receiving the next
+	private long readingIdleTime = 0;
+	private long lastBatchProcessed;
 	private  List<ActorRef<LargeMessageProxy.Message>> dependencyWorkersLargeMessageProxy;
-	// this counter is there to see how many tasks are still there to be done
-
+	// these counters are there to see how many tasks are still there to be sent and how many results are still missing
+	private int numberOfTasks = 0;
 	private int taskCounter = 0;
+	private int pendingTaskResults = 0;
 	private int fileCounter;
+	// the number of readers that are still reading a range of each file
+	private final int[] pendingSplits;
+	// how many candidates each PruningRule refuted before they were sent to any worker
+	private final long[] prunedCandidates = new long[PruningRule.values().length];
+	// In SPIDER and BINDER mode, these are the columns of each partition that still has to be validated
+	private final List<Column[]> pendingPartitions = new ArrayList<>();
+	private int partitionCounter = 0;
+	private int pendingPartitionResults = 0;
+	// the referenced columns that survived all partitions so far, for each dependent column
+	private BitSet[] survivingCandidates;
+	// In DISTRIBUTED mode, the discovery was started but waits for the expected workers and the splits of all files to read the input files
+	private boolean waitingForWorkers = false;
+	// In hard mode, the value ids of all rows of every file, one list per column, so that we can hash the value combinations of n-ary candidates
+	private final IntArrayList[][] fileRows;
+	// The file and the position in its header of every column
+	private final IntArrayList columnFiles = new IntArrayList();
+	private final IntArrayList columnPositions = new IntArrayList();
+	// In hard mode, the valid INDs of the current arity, each as its dependent column ids followed by its referenced column ids
+	private List<int[]> validInds = new ArrayList<>();
+	// The arity of the candidates that are validated right now; the n-ary candidates are sorted by their dependent columns
+	private int arity = 1;
+	private List<int[]> naryCandidates;
+	private final int maxNaryArity = DomainConfigurationSingleton.get().getDependencyMinerMaxNaryArity();
+	// In incremental mode, the columns that we know from the previous run with their number of distinct values back then, and the valid INDs
+	// of the previous run as pairs of column names
+	private final boolean incremental;
+	private final long[] fileLengths;
+	private final HashMap<Integer, Integer> previousDistinctCounts = new HashMap<>();
+	private final Set<List<String>> previousInds = new HashSet<>();
+	private final File stateFile = new File(DomainConfigurationSingleton.get().getProfilingStateFileName());
+	// The store with the columns of earlier runs, or null if it is not used, and the files whose columns are stored already
+	private final ColumnStore columnStore;
+	private final boolean[] storedFiles;
+	// If the values of the columns do not fit into memory, they are collected in spilled columns instead of the dictionary, which write
+	// them to the spill directory as sorted runs whenever all buffered values together exceed the budget; a budget of 0 disables spilling
+	private final long spillMemoryBudget;
+	private final File spillDirectory;
+	private final List<SpilledColumn> spilledColumns = new ArrayList<>();
+	private long spillBufferedBytes = 0;
 
 	////////////////////
 	// Actor Behavior //
@@ -147,85 +340,204 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	public Receive<Message> createReceive() {
 		return newReceiveBuilder()
 				.onMessage(StartMessage.class, this::handle)
+				.onMessage(SplitOffsetsMessage.class, this::handle)
+				.onMessage(JoinDeadlineMessage.class, this::handle)
 				.onMessage(BatchMessage.class, this::handle)
 				.onMessage(HeaderMessage.class, this::handle)
 				.onMessage(RegistrationMessage.class, this::handle)
 				.onMessage(CompletionMessage.class, this::handle)
+				.onMessage(ColumnRequestMessage.class, this::handle)
+				.onMessage(SpiderResultMessage.class, this::handle)
 				.onSignal(Terminated.class, this::handle)
+				.onSignal(PostStop.class, this::handle)
 				.build();
 	}
 
-	private Behavior<Message> handle(StartMessage message) {
-		for (ActorRef<InputReader.Message> inputReader : this.inputReaders)
-			inputReader.tell(new InputReader.ReadHeaderMessage(this.getContext().getSelf()));
-		for (ActorRef<InputReader.Message> inputReader : this.inputReaders)
-			inputReader.tell(new InputReader.ReadBatchMessage(this.getContext().getSelf()));
+	private Behavior<Message> handle(StartMessage message) throws IOException, CsvValidationException {
+		if (this.discoveryMode == DiscoveryMode.DISTRIBUTED) {
+			this.startTime = System.currentTimeMillis();
+			this.waitingForWorkers = true;
+			this.timers.startSingleTimer("JoinDeadline", new JoinDeadlineMessage(), Duration.ofSeconds(SystemConfigurationSingleton.get().getJoinDeadline()));
+			this.startDistributedIngestionIfReady();
+			return this;
+		}
+		this.readingStarted = true;
+		this.startReading(this.inputReaders);
 		this.startTime = System.currentTimeMillis();
+		this.lastBatchProcessed = this.startTime;
+		// In incremental mode, there may be nothing new to read at all
+		if (this.fileCounter == 0)
+			startChecking();
+		return this;
+	}
+
+	private void startReading(List<ActorRef<InputReader.Message>> inputReaders) {
+		for (ActorRef<InputReader.Message> inputReader : inputReaders)
+			inputReader.tell(new InputReader.ReadHeaderMessage(this.getContext().getSelf()));
+		// Every reader may read some batches ahead, so that reading and processing the batches overlap
+		for (ActorRef<InputReader.Message> inputReader : inputReaders)
+			inputReader.tell(new InputReader.ReadBatchMessage(this.getContext().getSelf(), this.readerBatchesInFlight));
+	}
+
+	/**
+	 * Finds the split offsets of a file on the blocking dispatcher, which sends them to the Miner in a SplitOffsetsMessage
+	 */
+	private void scanSplitOffsets(int id, long splitSize) {
+		File inputFile = this.inputFiles[id];
+		CompletableFuture<long[]> splitOffsets = CompletableFuture.supplyAsync(() -> {
+			try {
+				return InputConfigurationSingleton.get().getSplitOffsets(inputFile, splitSize);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, this.getContext().getSystem().dispatchers().lookup(DispatcherSelector.blocking()));
+		this.pendingScans++;
+		this.getContext().pipeToSelf(splitOffsets, (offsets, failure) -> new SplitOffsetsMessage(id, offsets, failure));
+	}
+
+	private Behavior<Message> handle(SplitOffsetsMessage message) throws IOException, CsvValidationException {
+		if (message.getFailure() != null)
+			throw new IOException("Could not split file " + this.inputFiles[message.getId()].getName(), message.getFailure());
+		this.splitOffsets[message.getId()] = message.getSplitOffsets();
+		this.pendingScans--;
+
+		if (this.discoveryMode == DiscoveryMode.DISTRIBUTED) {
+			this.startDistributedIngestionIfReady();
+			return this;
+		}
+		int firstReader = this.inputReaders.size();
+		this.spawnInputReaders(message.getId());
+		if (this.readingStarted)
+			this.startReading(this.inputReaders.subList(firstReader, this.inputReaders.size()));
 		return this;
 	}
 
+	private void spawnInputReaders(int id) {
+		long[] splitOffsets = this.splitOffsets[id];
+		for (int split = 0; split < splitOffsets.length - 1; split++) {
+			int readerId = this.inputReaders.size();
+			this.inputReaders.add(this.getContext().spawn(InputReader.create(id, readerId, this.inputFiles[id], splitOffsets[split], splitOffsets[split + 1]), InputReader.DEFAULT_NAME + "_" + readerId));
+			this.pendingSplits[id]++;
+		}
+		if (this.pendingSplits[id] > 1)
+			this.getContext().getLog().info("Reading file {} with {} readers", this.inputFiles[id].getName(), this.pendingSplits[id]);
+	}
+
 	private Behavior<Message> handle(HeaderMessage message) {
 		this.headerLines[message.getId()] = message.getHeader();
 		return this;
 	}
 
-	private Behavior<Message> handle(BatchMessage message) {
+	private Behavior<Message> handle(BatchMessage message) throws IOException {
+		this.readingIdleTime += System.currentTimeMillis() - this.lastBatchProcessed;
 
-		this.getContext().getLog().info("Received batch of {} rows for file {}!", message.getBatch().size(), this.inputFiles[message.getId()].getName());
-		// Here are all rows in a Batch
-		List<String[]> rows = message.getBatch();
+		// Here are the values of all columns in a Batch
+		String[][] columns = message.getColumns();
+		int numValues = Arrays.stream(columns).mapToInt(column -> column.length).sum();
+		this.getContext().getLog().info("Received batch of {} rows with {} new values for file {}!", message.getNumRows(), numValues, this.inputFiles[message.getId()].getName());
 
-		if(!rows.isEmpty()){
-			// number of a columns in a row
-			int numberOfColumns = rows.get(0).length;
-			for (int columnNumber = 0; columnNumber < numberOfColumns; columnNumber++){
-				for (String[] row : rows){
-					// for each row we put the data of that column the Hashmap
-					putInHashMapOfColumns(message,columnNumber,row);
-				}
+		if(message.getNumRows() > 0){
+			for (int columnNumber = 0; columnNumber < columns.length; columnNumber++){
+				// for each column we put its values into the Hashmap
+				putInHashMapOfColumns(message.getId(), columnNumber, columns[columnNumber]);
 			}
-			// And then we ask for another Batch
-			this.inputReaders.get(message.getId()).tell(new InputReader.ReadBatchMessage(this.getContext().getSelf()));
+			// And then we give the reader the credit for another Batch
+			this.inputReaders.get(message.getReaderId()).tell(new InputReader.ReadBatchMessage(this.getContext().getSelf(), 1));
 		}else {
-			// when we get a empty Batch, it means reading a file is finished
-			this.getContext().getLog().info("Reading file {} is finished", this.inputFiles[message.getId()].getName());
-			fileCounter--;
+			// when we get a empty Batch, it means reading a range of a file is finished; the file is finished when all of its ranges are
+			if (--this.pendingSplits[message.getId()] == 0) {
+				this.getContext().getLog().info("Reading file {} is finished", this.inputFiles[message.getId()].getName());
+				fileCounter--;
+			}
 			// then we check here if there is file to be read or not, if not we start making tasks and check the columns
 			if (fileCounter == 0) {
-				this.getContext().getLog().info("All files have been read");
+				this.getContext().getLog().info("All files have been read within {} ms; the Miner waited {} ms of it for batches", System.currentTimeMillis() - this.startTime, this.readingIdleTime);
 				startChecking();
+				return this;
 			}
 		}
+		this.lastBatchProcessed = System.currentTimeMillis();
 		return this;
 	}
 
-	private Behavior<Message> handle(RegistrationMessage message) {
+	private Behavior<Message> handle(RegistrationMessage message) throws IOException, CsvValidationException {
 		ActorRef<DependencyWorker.Message> dependencyWorker = message.getDependencyWorker();
 		if (!this.dependencyWorkers.contains(dependencyWorker)) {
 			this.dependencyWorkers.add(dependencyWorker);
 			this.getContext().watch(dependencyWorker);
 			// we save the worker LargeMessage proxy so that we can find it later
 			this.dependencyWorkersLargeMessageProxy.add(message.getDependencyWorkerLargeMessageProxy());
+			if (this.discoveryMode == DiscoveryMode.DISTRIBUTED && !this.waitingForWorkers && this.survivingCandidates != null)
+				this.getContext().getLog().info("Worker {} registered after the input was split among the workers, so it reads no split and owns no bucket", dependencyWorker.path());
+			this.startDistributedIngestionIfReady();
+			if (this.partitionCounter < this.pendingPartitions.size())
+				sendPartitionTask(dependencyWorker);
+			for (int i = 0; i < this.tasksInFlightPerWorker && checkRemainingTasks(); i++)
+				sendTasksToDependencyWorker(dependencyWorker);
 		}
 		return this;
 	}
 
 	private Behavior<Message> handle(CompletionMessage message) {
 		ActorRef<DependencyWorker.Message> dependencyWorker = message.getDependencyWorker();
-		// The completion Message has a boolean which says if the Worker found a IND or not. If it is True we send the two Columns to ResultCollector
-		if (message.isFoundIND()) {
-			File dependentFile = new File(message.getColumn2().getNameOfFile());
-			File referencedFile = new File(message.getColumn1().getNameOfFile());
-			String[] dependentAttributes = new String[]{message.getColumn2().getColumnName()};
-			String[] referencedAttributes = new String[]{message.getColumn1().getColumnName()};
-			InclusionDependency ind = new InclusionDependency(dependentFile, dependentAttributes, referencedFile, referencedAttributes);
-			List<InclusionDependency> inds = new ArrayList<>(1);
-			inds.add(ind);
+		// The completion Message has one bit for every candidate of the task which says if the Worker found a IND or not
+		BitSet foundINDs = BitSet.valueOf(message.getFoundINDs());
+		if (!foundINDs.isEmpty()) {
+			int firstCandidate = this.taskStarts.getInt(message.getTaskID());
+			List<InclusionDependency> inds = new ArrayList<>(foundINDs.cardinality());
+			for (int i = foundINDs.nextSetBit(0); i >= 0; i = foundINDs.nextSetBit(i + 1)) {
+				int[] ind = this.arity > 1 ? this.naryCandidates.get(firstCandidate + i) : new int[]{this.candidateDependentColumns.getInt(firstCandidate + i), this.candidateReferencedColumns.getInt(firstCandidate + i)};
+				inds.add(createInclusionDependency(ind));
+				if (this.discoverNaryDependencies || this.incremental)
+					this.validInds.add(ind);
+			}
 
 			this.resultCollector.tell(new ResultCollector.ResultMessage(inds));
 		}
-		// Here when Miner gets a Completion Message, it means that it is now idle and therefore we can send it a new Task
-		sendTasksToDependencyWorker(dependencyWorker);
+		this.pendingTaskResults--;
+		// Here when Miner gets a Completion Message, it means that the worker has capacity for a new Task
+		if (checkRemainingTasks())
+			sendTasksToDependencyWorker(dependencyWorker);
+		else if (this.pendingTaskResults == 0)
+			this.finishLevel();
+		return this;
+	}
+
+	private Behavior<Message> handle(ColumnRequestMessage message) {
+		// Every column is sent on its own, so that a worker can start as soon as the columns of its task arrived
+		ActorRef<LargeMessageProxy.Message> dependencyWorkerLargeMessageProxy = this.dependencyWorkersLargeMessageProxy.get(this.dependencyWorkers.indexOf(message.getDependencyWorker()));
+		for (int columnId : message.getColumnIds())
+			this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(new DependencyWorker.ColumnMessage(this.columns.get(columnId)), dependencyWorkerLargeMessageProxy));
+		return this;
+	}
+
+	private Behavior<Message> handle(SpiderResultMessage message) {
+		// A candidate is only valid if it holds in every partition, so we intersect the survivors of all partitions
+		long[][] referencedColumns = message.getReferencedColumns();
+		for (int dependent = 0; dependent < referencedColumns.length; dependent++)
+			this.survivingCandidates[dependent].and(BitSet.valueOf(referencedColumns[dependent]));
+		this.pendingPartitionResults--;
+
+		if (this.partitionCounter < this.pendingPartitions.size()) {
+			sendPartitionTask(message.getDependencyWorker());
+			return this;
+		}
+		if (this.pendingPartitionResults > 0)
+			return this;
+
+		List<InclusionDependency> inds = new ArrayList<>();
+		for (int dependent = 0; dependent < this.survivingCandidates.length; dependent++) {
+			BitSet referenced = this.survivingCandidates[dependent];
+			for (int column = referenced.nextSetBit(0); column >= 0; column = referenced.nextSetBit(column + 1)) {
+				int[] ind = new int[]{dependent, column};
+				inds.add(createInclusionDependency(ind));
+				if (this.discoverNaryDependencies)
+					this.validInds.add(ind);
+			}
+		}
+		this.getContext().getLog().info("Found {} INDs in {} partitions", inds.size(), this.partitionCounter);
+		this.resultCollector.tell(new ResultCollector.ResultMessage(inds));
+		this.finishLevel();
 		return this;
 	}
 	/**
@@ -233,68 +545,544 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	 */
 	private void startChecking(){
 		this.getContext().getLog().info("Lets start checking");
-		// We make every Two column into a TaskMessage and save it in List of Tasks
-		for (String key1 : columnHashMap.keySet()){
-			for (String key2 : columnHashMap.keySet()){
-				if(! key1.equals(key2)){
-					DependencyWorker.TaskMessage task = new DependencyWorker.TaskMessage(this.largeMessageProxy,-1,columnHashMap.get(key1),columnHashMap.get(key2));
-					taskMessageList.add(task);
+		if (this.spillMemoryBudget > 0) {
+			validateSpilledColumns();
+			return;
+		}
+		// The columns are complete now, so we turn their collected value ids into sorted arrays
+		for (Column column : columnHashMap.values())
+			column.seal();
+		this.getContext().getLog().info("Encoded {} columns with {} distinct values", columnHashMap.size(), valueDictionary.size());
+
+		if (this.discoveryMode == DiscoveryMode.SPIDER || this.discoveryMode == DiscoveryMode.BINDER) {
+			startPartitionedChecking();
+			return;
+		}
+		// We make every Two column into a candidate. All candidates of one dependent column stay in the same task, so that the worker
+		// reads the dependent values only once for all of its referenced columns; a task is filled with such groups up to taskBatchSize candidates
+		List<InclusionDependency> unchangedInds = new ArrayList<>();
+		for (String dependentKey : columnHashMap.keySet()){
+			if (this.taskStarts.isEmpty() || this.candidateDependentColumns.size() - this.taskStarts.getInt(this.taskStarts.size() - 1) >= this.taskBatchSize)
+				this.taskStarts.add(this.candidateDependentColumns.size());
+			for (String referencedKey : columnHashMap.keySet()){
+				if (referencedKey.equals(dependentKey) || isSettledByPreviousRun(columnHashMap.get(dependentKey), columnHashMap.get(referencedKey), unchangedInds))
+					continue;
+				if(!isPruned(columnHashMap.get(dependentKey), columnHashMap.get(referencedKey))){
+					this.candidateReferencedColumns.add(columnHashMap.get(referencedKey).getId());
+					this.candidateDependentColumns.add(columnHashMap.get(dependentKey).getId());
 				}
 			}
 		}
-		// And here we send the Tasks to the Workers
-		for (ActorRef<DependencyWorker.Message> dependencyWorker : this.dependencyWorkers) {
-			sendTasksToDependencyWorker(dependencyWorker);
+		this.taskStarts.add(this.candidateDependentColumns.size());
+		// Groups whose candidates were all pruned can leave an empty task behind, which we remove here
+		for (int task = this.taskStarts.size() - 1; task > 0; task--)
+			if (this.taskStarts.getInt(task) == this.taskStarts.getInt(task - 1))
+				this.taskStarts.removeInt(task);
+		this.logPrunedCandidates();
+		if (this.incremental) {
+			this.getContext().getLog().info("Kept {} INDs of the previous run that the appended rows cannot invalidate", unchangedInds.size());
+			this.resultCollector.tell(new ResultCollector.ResultMessage(unchangedInds));
+		}
+		this.numberOfTasks = this.taskStarts.size() - 1;
+		this.pendingTaskResults = this.numberOfTasks;
+		this.getContext().getLog().info("Checking {} candidates in {} tasks", this.candidateReferencedColumns.size(), this.numberOfTasks);
+		if (this.numberOfTasks == 0) {
+			this.finishLevel();
+			return;
 		}
+		// And here we send the first Tasks to the Workers; each worker gets some tasks ahead so that it never waits for the next one
+		for (ActorRef<DependencyWorker.Message> dependencyWorker : this.dependencyWorkers)
+			for (int i = 0; i < this.tasksInFlightPerWorker && checkRemainingTasks(); i++)
+				sendTasksToDependencyWorker(dependencyWorker);
 	}
 	/**
 	 * @param dependencyWorker
-	 * Send a task to the given dependency worker
+	 * Send the next batch of candidates to the given dependency worker
 	 */
 	private void sendTasksToDependencyWorker(ActorRef<DependencyWorker.Message> dependencyWorker){
-		this.getContext().getLog().info("number of remaining Tasks is {}: ." , taskMessageList.size() - taskCounter);
-		this.getContext().getLog().info("Sending task to a worker");
-		// if there is still task to be done
-		if(checkRemainingTasks()){
-			this.getContext().getLog().info("Still tasks remaining to be done");
-			DependencyWorker.TaskMessage taskMessage = this.taskMessageList.get(taskCounter);
-			taskMessage.setDependencyMinerLargeMessageProxy(this.largeMessageProxy);
-			// Here we send the task via Large Message proxy to the Worker
-			this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(taskMessage,this.dependencyWorkersLargeMessageProxy.get(this.dependencyWorkers.indexOf(dependencyWorker))));
-			taskCounter++;
-		}else {
-			this.getContext().getLog().info("All tasks are given to Workers");
+		if (this.arity > 1) {
+			sendNaryTaskToDependencyWorker(dependencyWorker);
+			return;
+		}
+		this.getContext().getLog().info("number of remaining Tasks is {}: ." , this.numberOfTasks - taskCounter);
+		int firstCandidate = this.taskStarts.getInt(this.taskCounter);
+		int lastCandidate = this.taskStarts.getInt(this.taskCounter + 1);
+		int[] referencedColumns = Arrays.copyOfRange(this.candidateReferencedColumns.elements(), firstCandidate, lastCandidate);
+		int[] dependentColumns = Arrays.copyOfRange(this.candidateDependentColumns.elements(), firstCandidate, lastCandidate);
+		DependencyWorker.TaskMessage taskMessage = new DependencyWorker.TaskMessage(this.largeMessageProxy, this.taskCounter, referencedColumns, dependentColumns, this.validationStrategy);
+		// Here we send the task via Large Message proxy to the Worker; it only holds column ids, so it may overtake the transfers of columns
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(taskMessage,this.dependencyWorkersLargeMessageProxy.get(this.dependencyWorkers.indexOf(dependencyWorker)), LargeMessageProxy.Priority.HIGH));
+		taskCounter++;
+	}
+	/**
+	 * Called when all candidates of the current arity are validated. In hard mode, the valid INDs of this arity are combined into the
+	 * candidates of the next arity, which are validated in tasks just like the unary ones; the discovery ends when no candidates are left.
+	 */
+	private void finishLevel(){
+		if (!this.discoverNaryDependencies || this.arity >= this.maxNaryArity) {
+			this.end();
+			return;
+		}
+		List<int[]> candidates = NaryCandidateGenerator.generate(this.validInds, this.columnFiles.toIntArray());
+		this.getContext().getLog().info("Generated {} candidates of arity {} from {} valid INDs", candidates.size(), this.arity + 1, this.validInds.size());
+		this.validInds = new ArrayList<>();
+		if (candidates.isEmpty()) {
 			this.end();
+			return;
+		}
+		this.arity++;
+		this.naryCandidates = candidates;
+
+		// A task checks candidates with the same dependent columns, because it carries the hashes of their value combinations
+		this.taskStarts.clear();
+		for (int candidate = 0; candidate < candidates.size(); candidate++) {
+			boolean sameDependent = candidate > 0 && Arrays.equals(candidates.get(candidate), 0, this.arity, candidates.get(candidate - 1), 0, this.arity);
+			if (!sameDependent || candidate - this.taskStarts.getInt(this.taskStarts.size() - 1) >= this.taskBatchSize)
+				this.taskStarts.add(candidate);
+		}
+		this.taskStarts.add(candidates.size());
+		this.numberOfTasks = this.taskStarts.size() - 1;
+		this.taskCounter = 0;
+		this.pendingTaskResults = this.numberOfTasks;
+		for (ActorRef<DependencyWorker.Message> dependencyWorker : this.dependencyWorkers)
+			for (int i = 0; i < this.tasksInFlightPerWorker && checkRemainingTasks(); i++)
+				sendTasksToDependencyWorker(dependencyWorker);
+	}
+	/**
+	 * @param dependencyWorker
+	 * Send the next task of n-ary candidates to the given dependency worker; the value combinations are hashed only now, so that only the
+	 * hashes of the tasks in flight are in memory
+	 */
+	private void sendNaryTaskToDependencyWorker(ActorRef<DependencyWorker.Message> dependencyWorker){
+		int firstCandidate = this.taskStarts.getInt(this.taskCounter);
+		int lastCandidate = this.taskStarts.getInt(this.taskCounter + 1);
+		long[] dependentValues = hashValueCombinations(Arrays.copyOfRange(this.naryCandidates.get(firstCandidate), 0, this.arity));
+		long[][] referencedValues = new long[lastCandidate - firstCandidate][];
+		for (int candidate = firstCandidate; candidate < lastCandidate; candidate++)
+			referencedValues[candidate - firstCandidate] = hashValueCombinations(Arrays.copyOfRange(this.naryCandidates.get(candidate), this.arity, 2 * this.arity));
+		DependencyWorker.NaryTaskMessage taskMessage = new DependencyWorker.NaryTaskMessage(this.largeMessageProxy, this.taskCounter, dependentValues, referencedValues);
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(taskMessage,this.dependencyWorkersLargeMessageProxy.get(this.dependencyWorkers.indexOf(dependencyWorker))));
+		taskCounter++;
+	}
+	/**
+	 * @param columnIds columns of one file
+	 * @return the sorted distinct 64 bit hashes of the value combinations of the columns in all rows of their file; two different
+	 * combinations only get the same hash with a negligible probability, which could make an invalid candidate look valid
+	 */
+	private long[] hashValueCombinations(int[] columnIds){
+		IntArrayList[] rows = this.fileRows[this.columnFiles.getInt(columnIds[0])];
+		long[] hashes = new long[rows[this.columnPositions.getInt(columnIds[0])].size()];
+		// The hash depends on the order of the columns, so that (a, b) and (b, a) are different combinations
+		for (int columnId : columnIds) {
+			IntArrayList values = rows[this.columnPositions.getInt(columnId)];
+			for (int row = 0; row < hashes.length; row++)
+				hashes[row] = (hashes[row] + values.getInt(row) + 1) * 0x9E3779B97F4A7C15L;
+		}
+		for (int row = 0; row < hashes.length; row++) {
+			long hash = hashes[row];
+			hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+			hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+			hashes[row] = hash ^ (hash >>> 33);
 		}
+		Arrays.sort(hashes);
+		int distinct = 0;
+		for (int row = 0; row < hashes.length; row++)
+			if (distinct == 0 || hashes[row] != hashes[distinct - 1])
+				hashes[distinct++] = hashes[row];
+		return Arrays.copyOf(hashes, distinct);
+	}
+	/**
+	 * In SPIDER mode, all columns form one partition that is validated by one worker. In BINDER mode, the values of all columns are
+	 * hash-partitioned into buckets and each bucket is validated by one worker, so that every worker only needs a part of each column.
+	 */
+	private void startPartitionedChecking(){
+		int numColumns = this.columns.size();
+		this.survivingCandidates = new BitSet[numColumns];
+		for (int dependent = 0; dependent < numColumns; dependent++) {
+			this.survivingCandidates[dependent] = new BitSet(numColumns);
+			for (int referenced = 0; referenced < numColumns; referenced++)
+				if (referenced != dependent && !isPruned(this.columns.get(dependent), this.columns.get(referenced)))
+					this.survivingCandidates[dependent].set(referenced);
+		}
+		this.logPrunedCandidates();
+
+		if (this.discoveryMode == DiscoveryMode.SPIDER) {
+			this.pendingPartitions.add(this.columns.toArray(new Column[0]));
+		} else {
+			int numBuckets = this.numBuckets > 0 ? this.numBuckets : 2 * Math.max(1, this.dependencyWorkers.size());
+			Column[][] columnBuckets = new Column[numColumns][];
+			for (int column = 0; column < numColumns; column++)
+				columnBuckets[column] = this.columns.get(column).partition(numBuckets);
+			for (int bucket = 0; bucket < numBuckets; bucket++) {
+				Column[] partition = new Column[numColumns];
+				for (int column = 0; column < numColumns; column++)
+					partition[column] = columnBuckets[column][bucket];
+				this.pendingPartitions.add(partition);
+			}
+			this.getContext().getLog().info("Partitioned all columns into {} buckets", numBuckets);
+		}
+		this.pendingPartitionResults = this.pendingPartitions.size();
+
+		for (ActorRef<DependencyWorker.Message> dependencyWorker : this.dependencyWorkers)
+			if (this.partitionCounter < this.pendingPartitions.size())
+				sendPartitionTask(dependencyWorker);
+	}
+	private Behavior<Message> handle(JoinDeadlineMessage message) throws IOException, CsvValidationException {
+		this.joinDeadlinePassed = true;
+		if (this.waitingForWorkers && this.dependencyWorkers.size() < this.expectedWorkers)
+			this.getContext().getLog().warn("Only {} of {} expected workers registered before the join deadline", this.dependencyWorkers.size(), this.expectedWorkers);
+		this.startDistributedIngestionIfReady();
+		return this;
+	}
+
+	/**
+	 * The workers read the input as soon as the splits of all files are known and either the expected workers registered or, if fewer
+	 * registered, the join deadline passed; the input is split among the workers only once, so it waits for all workers that may join
+	 */
+	private void startDistributedIngestionIfReady() throws IOException, CsvValidationException {
+		if (!this.waitingForWorkers || this.pendingScans > 0 || this.dependencyWorkers.isEmpty())
+			return;
+		if (!this.joinDeadlinePassed && (this.expectedWorkers == 0 || this.dependencyWorkers.size() < this.expectedWorkers))
+			return;
+		this.timers.cancel("JoinDeadline");
+		this.startDistributedIngestion();
+	}
+
+	/**
+	 * In DISTRIBUTED mode, the master only reads the headers and has found the splits of the input files. The splits are assigned round-robin to
+	 * the registered workers, which read them and send every value to the worker that owns its bucket; each worker then validates all candidates
+	 * on its bucket. The master has no column statistics in this mode, so no candidate is pruned upfront.
+	 */
+	private void startDistributedIngestion() throws IOException, CsvValidationException {
+		this.waitingForWorkers = false;
+		int numWorkers = this.dependencyWorkers.size();
+		List<List<DependencyWorker.InputSplit>> assignedSplits = new ArrayList<>(numWorkers);
+		for (int worker = 0; worker < numWorkers; worker++)
+			assignedSplits.add(new ArrayList<>());
+
+		int splitCounter = 0;
+		for (int id = 0; id < this.inputFiles.length; id++) {
+			this.headerLines[id] = InputConfigurationSingleton.get().getHeader(this.inputFiles[id]);
+			int[] columnIds = new int[this.headerLines[id].length];
+			for (int columnNumber = 0; columnNumber < columnIds.length; columnNumber++)
+				columnIds[columnNumber] = getOrCreateColumn(id, columnNumber).getId();
+			long[] splitOffsets = this.splitOffsets[id];
+			for (int split = 0; split < splitOffsets.length - 1; split++)
+				assignedSplits.get(splitCounter++ % numWorkers).add(new DependencyWorker.InputSplit(this.inputFiles[id].getAbsolutePath(), splitOffsets[split], splitOffsets[split + 1], columnIds));
+		}
+
+		int numColumns = this.columns.size();
+		this.survivingCandidates = new BitSet[numColumns];
+		for (int dependent = 0; dependent < numColumns; dependent++) {
+			this.survivingCandidates[dependent] = new BitSet(numColumns);
+			this.survivingCandidates[dependent].set(0, numColumns);
+			this.survivingCandidates[dependent].clear(dependent);
+		}
+		// Every worker owns one bucket, so all partitions are handed out at once
+		this.partitionCounter = numWorkers;
+		this.pendingPartitionResults = numWorkers;
+
+		this.getContext().getLog().info("Reading {} splits of {} columns on {} workers ({} expected)", splitCounter, numColumns, numWorkers, this.expectedWorkers);
+		List<ActorRef<LargeMessageProxy.Message>> bucketOwners = new ArrayList<>(this.dependencyWorkersLargeMessageProxy);
+		InputFormat inputFormat = InputConfigurationSingleton.get().toInputFormat();
+		for (int bucket = 0; bucket < numWorkers; bucket++) {
+			DependencyWorker.InputSplit[] splits = assignedSplits.get(bucket).toArray(new DependencyWorker.InputSplit[0]);
+			DependencyWorker.IngestionTaskMessage task = new DependencyWorker.IngestionTaskMessage(this.largeMessageProxy, bucket, bucketOwners, numColumns, splits, inputFormat);
+			this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(task, bucketOwners.get(bucket)));
+		}
+	}
+	/**
+	 * @param dependencyWorker
+	 * Sends the next partition together with the candidates that survived all partitions so far to the given worker
+	 */
+	private void sendPartitionTask(ActorRef<DependencyWorker.Message> dependencyWorker){
+		long[][] candidates = new long[this.survivingCandidates.length][];
+		for (int dependent = 0; dependent < candidates.length; dependent++)
+			candidates[dependent] = this.survivingCandidates[dependent].toLongArray();
+		DependencyWorker.SpiderTaskMessage task = new DependencyWorker.SpiderTaskMessage(this.largeMessageProxy, this.partitionCounter, this.pendingPartitions.get(this.partitionCounter), candidates);
+		// The columns of a partition are not needed here anymore once they are sent
+		this.pendingPartitions.set(this.partitionCounter, null);
+		this.partitionCounter++;
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(task, this.dependencyWorkersLargeMessageProxy.get(this.dependencyWorkers.indexOf(dependencyWorker))));
 	}
 	/**
 	 * @return True if there is still task to be done
 	 */
 	private boolean checkRemainingTasks(){
-		if(taskCounter < taskMessageList.size()){
+		if(taskCounter < numberOfTasks){
 			return true;
 		}else
 			return false;
 	}
 	/**
-	 * @param message
+	 * @param fileId
 	 * @param columnNumber
-	 * @param row
-	 * It puts the data into our HashMap
+	 * @param values
+	 * It puts the values of one column of a batch into our HashMap
 	 */
-	private void putInHashMapOfColumns(BatchMessage message, int columnNumber, String[] row){
+	private void putInHashMapOfColumns(int fileId, int columnNumber, String[] values) throws IOException {
+		Column column = getOrCreateColumn(fileId, columnNumber);
+		if (this.spillMemoryBudget > 0) {
+			spillValues(column, values);
+			return;
+		}
+		// In hard mode, the batches are row-aligned and we keep the value ids of every row for the n-ary candidates
+		IntArrayList rows = null;
+		if (this.discoverNaryDependencies) {
+			if (this.fileRows[fileId] == null)
+				this.fileRows[fileId] = new IntArrayList[this.headerLines[fileId].length];
+			if (this.fileRows[fileId][columnNumber] == null)
+				this.fileRows[fileId][columnNumber] = new IntArrayList();
+			rows = this.fileRows[fileId][columnNumber];
+		}
+		// Every value is first translated into its id in the global dictionary; the columns only store these ids
+		for (String value : values) {
+			int valueId = this.valueDictionary.encode(value);
+			column.addValueToColumn(valueId, value);
+			if (rows != null)
+				rows.add(valueId);
+		}
+	}
+
+	/**
+	 * Buffers the values of a column in its spilled column; when all buffers together exceed the memory budget, the largest buffers are
+	 * written to disk until half of the budget is free again, so that the next spill does not follow right away
+	 */
+	private void spillValues(Column column, String[] values) throws IOException {
+		while (this.spilledColumns.size() <= column.getId())
+			this.spilledColumns.add(new SpilledColumn(this.spilledColumns.size(), this.spillDirectory));
+		SpilledColumn spilledColumn = this.spilledColumns.get(column.getId());
+		for (String value : values)
+			this.spillBufferedBytes += spilledColumn.add(value);
+		if (this.spillBufferedBytes <= this.spillMemoryBudget)
+			return;
+
+		List<SpilledColumn> largestColumns = new ArrayList<>(this.spilledColumns);
+		largestColumns.sort(Comparator.comparingLong(SpilledColumn::getBufferedBytes).reversed());
+		int spilled = 0;
+		for (SpilledColumn largestColumn : largestColumns) {
+			if (this.spillBufferedBytes <= this.spillMemoryBudget / 2)
+				break;
+			this.spillBufferedBytes -= largestColumn.spill();
+			spilled++;
+		}
+		this.getContext().getLog().info("Spilled {} columns to disk", spilled);
+	}
+
+	/**
+	 * If the columns were spilled, their runs are merged into one sorted run of distinct values per column, and all unary candidates are
+	 * validated in one SPIDER pass over these runs right here, because the workers cannot read the local spill directory. Without the
+	 * statistics of the in-memory columns, no candidate is pruned upfront.
+	 */
+	private void validateSpilledColumns(){
+		List<InclusionDependency> inds = new ArrayList<>();
+		SpilledColumn.Cursor[] cursors = new SpilledColumn.Cursor[this.spilledColumns.size()];
+		try {
+			for (SpilledColumn spilledColumn : this.spilledColumns)
+				spilledColumn.merge();
+			for (int column = 0; column < cursors.length; column++)
+				cursors[column] = this.spilledColumns.get(column).open();
+			long[][] referencedColumns = Spider.validate(cursors, null);
+			for (int dependent = 0; dependent < referencedColumns.length; dependent++) {
+				BitSet referenced = BitSet.valueOf(referencedColumns[dependent]);
+				for (int column = referenced.nextSetBit(0); column >= 0; column = referenced.nextSetBit(column + 1))
+					inds.add(createInclusionDependency(new int[]{dependent, column}));
+			}
+			this.getContext().getLog().info("Found {} INDs in the spilled columns", inds.size());
+		} catch (IOException e) {
+			this.getContext().getLog().error("Could not validate the spilled columns", e);
+		} finally {
+			this.deleteSpilledColumns(cursors);
+		}
+		this.resultCollector.tell(new ResultCollector.ResultMessage(inds));
+		this.finishLevel();
+	}
+
+	private void deleteSpilledColumns(SpilledColumn.Cursor[] cursors){
+		try {
+			for (SpilledColumn.Cursor cursor : cursors)
+				if (cursor != null)
+					cursor.close();
+			for (SpilledColumn spilledColumn : this.spilledColumns)
+				spilledColumn.delete();
+			Files.deleteIfExists(this.spillDirectory.toPath());
+		} catch (IOException e) {
+			this.getContext().getLog().warn("Could not delete the spill directory {}", this.spillDirectory, e);
+		}
+	}
+
+	/**
+	 * @return the column of the given file and column number
+	 */
+	private Column getOrCreateColumn(int fileId, int columnNumber){
 		// The Hashmap is Map of String which is the ColumnName and its Value is Data of that Column which is a Column Object.
-		// So here we check if the Map has already has the columnName and just add the data to the column
-		if(columnHashMap.containsKey(this.headerLines[message.getId()][columnNumber])){
-			columnHashMap.get(this.headerLines[message.getId()][columnNumber]).addValueToColumn(row[columnNumber]);
-		}else {
-			// otherwise we get the ColumnName from headerlines and then add the data to the column
-			columnHashMap.put(this.headerLines[message.getId()][columnNumber],new Column(columnNumber,this.headerLines[message.getId()][columnNumber],this.inputFiles[message.getId()].getName()));
-			columnHashMap.get(this.headerLines[message.getId()][columnNumber]).addValueToColumn(row[columnNumber]);
+		// So here we check if the Map has already has the columnName; otherwise we get the ColumnName from headerlines and create
+		// the column; the id of a column is its position in the list of all columns
+		String columnName = this.headerLines[fileId][columnNumber];
+		Column column = columnHashMap.get(columnName);
+		if (column == null) {
+			column = new Column(this.columns.size(), columnName, this.inputFiles[fileId].getName());
+			this.columns.add(column);
+			this.columnFiles.add(fileId);
+			this.columnPositions.add(columnNumber);
+			columnHashMap.put(columnName, column);
+		}
+		return column;
+	}
+
+	/**
+	 * @return True if one of the PruningRules refutes the candidate; the rule that refuted it is counted
+	 */
+	private boolean isPruned(Column dependent, Column referenced){
+		for (PruningRule rule : PruningRule.values()) {
+			if (rule.refutes(dependent, referenced)) {
+				this.prunedCandidates[rule.ordinal()]++;
+				return true;
+			}
 		}
+		return false;
+	}
+
+	private void logPrunedCandidates(){
+		for (PruningRule rule : PruningRule.values())
+			this.getContext().getLog().info("Pruned {} candidates by {}", this.prunedCandidates[rule.ordinal()], rule);
+	}
+
+	/**
+	 * @param ind the dependent column ids of an IND followed by its referenced column ids
+	 */
+	private InclusionDependency createInclusionDependency(int[] ind) {
+		int arity = ind.length / 2;
+		String[] dependentAttributes = new String[arity];
+		String[] referencedAttributes = new String[arity];
+		for (int i = 0; i < arity; i++) {
+			dependentAttributes[i] = this.columns.get(ind[i]).getColumnName();
+			referencedAttributes[i] = this.columns.get(ind[arity + i]).getColumnName();
+		}
+		File dependentFile = new File(this.columns.get(ind[0]).getNameOfFile());
+		File referencedFile = new File(this.columns.get(ind[arity]).getNameOfFile());
+		return new InclusionDependency(dependentFile, dependentAttributes, referencedFile, referencedAttributes);
+	}
+
+	/**
+	 * @return the state of the previous run, or null if there is none that we can read
+	 */
+	private ProfilingState readPreviousState() {
+		if (!this.stateFile.exists())
+			return null;
+		try {
+			ProfilingState state = ProfilingState.read(this.stateFile);
+			for (String[] ind : state.getInds())
+				this.previousInds.add(Arrays.asList(ind));
+			return state;
+		} catch (IOException e) {
+			this.getContext().getLog().warn("Could not read the profiling state of the previous run; profiling from scratch", e);
+			return null;
+		}
+	}
+
+	/**
+	 * If the file only grew by appended rows since the previous run, its columns start with the values of the previous run
+	 * @return True if the file only needs to be read from where the previous run stopped
+	 */
+	private boolean continueFromPreviousState(int fileId, ProfilingState.FileState fileState) throws IOException, CsvValidationException {
+		File file = this.inputFiles[fileId];
+		if (fileState == null || fileState.getLength() > this.fileLengths[fileId]
+				|| !Arrays.equals(fileState.getHeader(), InputConfigurationSingleton.get().getHeader(file))
+				|| fileState.getFingerprint() != ProfilingState.fingerprint(file, fileState.getLength())
+				|| !ProfilingState.endsWithLineBreak(file, fileState.getLength()))
+			return false;
+
+		this.headerLines[fileId] = fileState.getHeader();
+		for (int columnNumber = 0; columnNumber < fileState.getHeader().length; columnNumber++) {
+			putInHashMapOfColumns(fileId, columnNumber, fileState.getColumnValues()[columnNumber]);
+			Column column = getOrCreateColumn(fileId, columnNumber);
+			this.previousDistinctCounts.put(column.getId(), column.distinctCount());
+		}
+		return true;
+	}
+
+	/**
+	 * In incremental mode, a candidate between two columns of the previous run only needs to be validated again if the appended rows can
+	 * change its result: new dependent values can only invalidate a valid IND and new referenced values can only make an invalid one valid
+	 * @return True if the result of the previous run still holds; if the IND is still valid, it is added to unchangedInds
+	 */
+	private boolean isSettledByPreviousRun(Column dependent, Column referenced, List<InclusionDependency> unchangedInds){
+		if (!this.incremental || !this.previousDistinctCounts.containsKey(dependent.getId()) || !this.previousDistinctCounts.containsKey(referenced.getId()))
+			return false;
+		boolean wasValid = this.previousInds.contains(Arrays.asList(dependent.getColumnName(), referenced.getColumnName()));
+		if (wasValid && !this.hasGrown(dependent)) {
+			int[] ind = new int[]{dependent.getId(), referenced.getId()};
+			unchangedInds.add(createInclusionDependency(ind));
+			this.validInds.add(ind);
+			return true;
+		}
+		return !wasValid && !this.hasGrown(referenced);
+	}
+
+	private boolean hasGrown(Column column){
+		return column.distinctCount() > this.previousDistinctCounts.get(column.getId());
+	}
+
+	/**
+	 * Stores the values of all columns and the valid INDs, so that the next run in incremental mode can continue from here
+	 */
+	private void writeState() {
+		ProfilingState state = new ProfilingState();
+		try {
+			for (int id = 0; id < this.inputFiles.length; id++) {
+				String[] header = this.headerLines[id];
+				if (header == null)
+					continue;
+				String[][] columnValues = this.decodeColumnValues(id);
+				long fingerprint = ProfilingState.fingerprint(this.inputFiles[id], this.fileLengths[id]);
+				state.getFiles().put(this.inputFiles[id].getName(), new ProfilingState.FileState(this.fileLengths[id], fingerprint, header, columnValues));
+			}
+			for (int[] ind : this.validInds)
+				state.getInds().add(new String[]{this.columns.get(ind[0]).getColumnName(), this.columns.get(ind[1]).getColumnName()});
+			state.write(this.stateFile);
+			this.getContext().getLog().info("Stored the profiling state with {} INDs in {}", state.getInds().size(), this.stateFile);
+		} catch (IOException e) {
+			this.getContext().getLog().error("Could not store the profiling state; the next run has to profile from scratch", e);
+		}
+	}
+
+	/**
+	 * Stores the columns of all files that were parsed in this run, so that the next run can load them from the column store
+	 */
+	private void writeColumnStore() {
+		for (int id = 0; id < this.inputFiles.length; id++) {
+			if (this.storedFiles[id] || this.headerLines[id] == null)
+				continue;
+			try {
+				this.columnStore.write(this.inputFiles[id], this.decodeColumnValues(id));
+			} catch (IOException e) {
+				this.getContext().getLog().error("Could not store the columns of file {}", this.inputFiles[id].getName(), e);
+			}
+		}
+		this.getContext().getLog().info("Stored the columns of all parsed files in the column store");
+	}
+
+	/**
+	 * @return the distinct values of every column of the file
+	 */
+	private String[][] decodeColumnValues(int fileId) {
+		String[][] columnValues = new String[this.headerLines[fileId].length][];
+		for (int columnNumber = 0; columnNumber < columnValues.length; columnNumber++) {
+			int[] values = getOrCreateColumn(fileId, columnNumber).getValues();
+			columnValues[columnNumber] = new String[values == null ? 0 : values.length];
+			for (int value = 0; value < columnValues[columnNumber].length; value++)
+				columnValues[columnNumber][value] = this.valueDictionary.decode(values[value]);
+		}
+		return columnValues;
 	}
 
 	private void end() {
+		if (this.incremental)
+			this.writeState();
+		if (this.columnStore != null)
+			this.writeColumnStore();
+		this.valueDictionary.close();
 		this.resultCollector.tell(new ResultCollector.FinalizeMessage());
 		long discoveryTime = System.currentTimeMillis() - this.startTime;
 		this.getContext().getLog().info("Finished mining within {} ms!", discoveryTime);
@@ -302,7 +1090,18 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 
 	private Behavior<Message> handle(Terminated signal) {
 		ActorRef<DependencyWorker.Message> dependencyWorker = signal.getRef().unsafeUpcast();
-		this.dependencyWorkers.remove(dependencyWorker);
+		// The proxies are found by the position of their workers, so both lists lose the same position
+		int position = this.dependencyWorkers.indexOf(dependencyWorker);
+		if (position >= 0) {
+			this.dependencyWorkers.remove(position);
+			this.dependencyWorkersLargeMessageProxy.remove(position);
+		}
+		return this;
+	}
+
+	private Behavior<Message> handle(PostStop signal) {
+		// The dictionary keeps its values in direct buffers, which should not wait for the garbage collector if we stop early
+		this.valueDictionary.close();
 		return this;
 	}
 }
\ No newline at end of file
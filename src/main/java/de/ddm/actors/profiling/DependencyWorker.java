@@ -2,17 +2,37 @@ package de.ddm.actors.profiling;
 
 import akka.actor.typed.ActorRef;
 import akka.actor.typed.Behavior;
+import akka.actor.typed.PostStop;
 import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
 import akka.actor.typed.receptionist.Receptionist;
 import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.configuration.InputFormat;
+import de.ddm.configuration.RecordReader;
 import de.ddm.serialization.AkkaSerializable;
+import de.ddm.singletons.DomainConfigurationSingleton;
+import de.ddm.structures.ValueDictionary;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message> {
@@ -32,18 +52,118 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 		Receptionist.Listing listing;
 	}
 	/**
-	 * It is a Message which DependencyMiner sends to worker which contains two columns to be compared for IND
+	 * It is a Message which DependencyMiner sends to worker which contains a batch of candidates to be checked for IND; the i-th candidate
+	 * is referencedColumns[i] as referenced and dependentColumns[i] as dependent column. The candidates of one dependent column are next
+	 * to each other, so that the worker can check them together. The worker fetches the columns that it has not cached yet.
 	 */
 	@Getter
-	@Setter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class TaskMessage implements Message,LargeMessageProxy.LargeMessage {
 		private static final long serialVersionUID = -4667745204456518160L;
 		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
 		int task;
-		Column column1;
-		Column column2;
+		int[] referencedColumns;
+		int[] dependentColumns;
+		ValidationStrategy validationStrategy;
+	}
+	/**
+	 * It is a Message which DependencyMiner sends to worker as answer to a ColumnRequestMessage
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ColumnMessage implements Message,LargeMessageProxy.LargeMessage {
+		private static final long serialVersionUID = -2154470587624360447L;
+		Column column;
+	}
+	/**
+	 * It is a Message which DependencyMiner sends to a worker in SPIDER and BINDER mode; it contains all columns (or one bucket of them)
+	 * whose candidates are validated together and, if some candidates are already refuted, the candidates that are still alive
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SpiderTaskMessage implements Message,LargeMessageProxy.LargeMessage {
+		private static final long serialVersionUID = 3164807322957408475L;
+		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+		int task;
+		Column[] columns;
+		long[][] candidates;
+	}
+	/**
+	 * It is a Message which DependencyMiner sends to worker in hard mode to check n-ary candidates that share their dependent columns; it
+	 * contains the sorted distinct hashes of the value combinations of the dependent columns and of the referenced columns of every candidate
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class NaryTaskMessage implements Message,LargeMessageProxy.LargeMessage {
+		private static final long serialVersionUID = -2937418871360425560L;
+		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+		int task;
+		long[] dependentValues;
+		long[][] referencedValues;
+	}
+	/**
+	 * A byte range of an input file that a worker reads in DISTRIBUTED mode; the i-th value of a record belongs to the column columnIds[i]
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class InputSplit implements AkkaSerializable {
+		private static final long serialVersionUID = -3519487251147740952L;
+		String path;
+		long startOffset;
+		long endOffset;
+		int[] columnIds;
+	}
+	/**
+	 * It is a Message which DependencyMiner sends to every worker in DISTRIBUTED mode; the worker reads the given splits itself and sends
+	 * every value to the owner of its bucket. The worker owns the bucket with the given index, i.e., bucketOwners.get(bucket) is its own proxy
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class IngestionTaskMessage implements Message,LargeMessageProxy.LargeMessage {
+		private static final long serialVersionUID = 8206941368529704611L;
+		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+		int bucket;
+		List<ActorRef<LargeMessageProxy.Message>> bucketOwners;
+		int numColumns;
+		InputSplit[] splits;
+		InputFormat inputFormat;
+	}
+	/**
+	 * It is a Message which a worker sends to itself to read the next batch of records of its splits
+	 */
+	@NoArgsConstructor
+	public static class ReadSplitMessage implements Message {
+		private static final long serialVersionUID = -6106187410628461923L;
+	}
+	/**
+	 * It is a Message with values of the receiver's bucket that a worker read; values[i] are values of the column columnIds[i]
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ShuffleValuesMessage implements Message,LargeMessageProxy.LargeMessage {
+		private static final long serialVersionUID = 4432830541129315473L;
+		int sender;
+		int[] columnIds;
+		String[][] values;
+	}
+	/**
+	 * It is a Message which a worker sends to every other worker after it read all of its splits; the messages of the large message proxies
+	 * can overtake each other, so the receiver waits until it has all numMessages ShuffleValuesMessages of the sender
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ShuffleEndMessage implements Message,LargeMessageProxy.LargeMessage {
+		private static final long serialVersionUID = -1878201562238370136L;
+		int sender;
+		int numMessages;
 	}
 
 	////////////////////////
@@ -63,6 +183,7 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 		context.getSystem().receptionist().tell(Receptionist.subscribe(DependencyMiner.dependencyMinerService, listingResponseAdapter));
 
 		this.largeMessageProxy = this.getContext().spawn(LargeMessageProxy.create(this.getContext().getSelf().unsafeUpcast()), LargeMessageProxy.DEFAULT_NAME);
+		this.columnCache = new ColumnCache(DomainConfigurationSingleton.get().getColumnCacheSizeInBytes());
 	}
 
 	/////////////////
@@ -71,6 +192,34 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 
 	private final ActorRef<LargeMessageProxy.Message> largeMessageProxy;
 
+	// The columns of earlier tasks, so that the Miner only needs to send each column once as long as it fits into the cache
+	private final ColumnCache columnCache;
+	// Tasks wait here until all of their columns are available
+	private final Deque<TaskMessage> waitingTasks = new ArrayDeque<>();
+	// The columns of the first waiting task that are already available; they are kept here even if the cache evicts them
+	private final Map<Integer, Column> availableColumns = new HashMap<>();
+	// The columns that we asked the Miner for and that have not arrived yet
+	private final Set<Integer> requestedColumns = new HashSet<>();
+
+	// In DISTRIBUTED mode, the task that tells us which splits to read and which bucket we own, and the reader of the current split
+	private IngestionTaskMessage ingestionTask;
+	private InputConfiguration inputConfiguration;
+	private RecordReader splitReader;
+	private int splitCounter;
+	private final int batchSize = DomainConfigurationSingleton.get().getInputReaderBatchSize();
+	// The values that we read for each bucket of another worker and each column, until we send them to the bucket's owner; they are sent after batchSize values at the latest
+	private List<List<ObjectOpenHashSet<String>>> shuffleBuffers;
+	private int[] shuffleBufferSizes;
+	private int[] sentShuffleMessages;
+	// The ids of the values of our own bucket for each column in a dictionary that keeps the values off the heap and, for every sender,
+	// how many messages we received and expect from it (-1 until we know); the ids only need to be consistent within this bucket
+	private ValueDictionary bucketDictionary;
+	private IntOpenHashSet[] bucketValues;
+	private int[] receivedShuffleMessages;
+	private int[] expectedShuffleMessages;
+	// Shuffle messages that arrive before our own IngestionTaskMessage
+	private final Deque<Message> earlyShuffleMessages = new ArrayDeque<>();
+
 	////////////////////
 	// Actor Behavior //
 	////////////////////
@@ -80,24 +229,44 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 		return newReceiveBuilder()
 				.onMessage(ReceptionistListingMessage.class, this::handle)
 				.onMessage(TaskMessage.class, this::handle)
+				.onMessage(ColumnMessage.class, this::handle)
+				.onMessage(SpiderTaskMessage.class, this::handle)
+				.onMessage(NaryTaskMessage.class, this::handle)
+				.onMessage(IngestionTaskMessage.class, this::handle)
+				.onMessage(ReadSplitMessage.class, this::handle)
+				.onMessage(ShuffleValuesMessage.class, this::handle)
+				.onMessage(ShuffleEndMessage.class, this::handle)
+				.onSignal(PostStop.class, this::handle)
 				.build();
 	}
 	/**
 	 * @param message is a task Message
-	 *  this Method is called in TaskMessage handle method and compares the two columns and sends back a completionMessage to Miner
+	 *  this Method is called as soon as all columns of a task are available; it checks every candidate of the task and sends back one completionMessage to Miner
 	 */
-	private void findInclusionDependency(TaskMessage message){
-		Column column1 = message.getColumn1();
-		Column column2 = message.getColumn2();
-		this.getContext().getLog().info("Checking IND in {} and {} ",column1.getColumnName(),column2.getColumnName());
-		Boolean result = column1.getValues().containsAll(column2.getValues());
-		if(result){
-			this.getContext().getLog().info("found IND between {} and {} ",column1.getColumnName(),column2.getColumnName());
-		}else {
-			this.getContext().getLog().info("found NO IND between {} and {} ",column1.getColumnName(),column2.getColumnName());
+	private void findInclusionDependencies(TaskMessage message){
+		int[] referencedColumns = message.getReferencedColumns();
+		int[] dependentColumns = message.getDependentColumns();
+		this.getContext().getLog().info("Checking {} candidates of task {}", referencedColumns.length, message.getTask());
+		BitSet foundINDs = new BitSet(referencedColumns.length);
+		int groupStart = 0;
+		while (groupStart < dependentColumns.length) {
+			// All consecutive candidates with the same dependent column are checked in one scan over the dependent values
+			int groupEnd = groupStart + 1;
+			while (groupEnd < dependentColumns.length && dependentColumns[groupEnd] == dependentColumns[groupStart])
+				groupEnd++;
+			int[] dependent = this.availableColumns.get(dependentColumns[groupStart]).getValues();
+			int[][] referenced = new int[groupEnd - groupStart][];
+			for (int i = groupStart; i < groupEnd; i++)
+				referenced[i - groupStart] = this.availableColumns.get(referencedColumns[i]).getValues();
+			boolean[] containing = message.getValidationStrategy().findContaining(dependent, referenced);
+			for (int i = groupStart; i < groupEnd; i++)
+				if (containing[i - groupStart])
+					foundINDs.set(i);
+			groupStart = groupEnd;
 		}
-		LargeMessageProxy.LargeMessage completionMessage = new DependencyMiner.CompletionMessage(this.getContext().getSelf(), message.getTask(),column1,column2,result);
-		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(completionMessage,message.getDependencyMinerLargeMessageProxy()));
+		this.getContext().getLog().info("found {} INDs in task {}", foundINDs.cardinality(), message.getTask());
+		LargeMessageProxy.LargeMessage completionMessage = new DependencyMiner.CompletionMessage(this.getContext().getSelf(), message.getTask(), foundINDs.toLongArray());
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(completionMessage, message.getDependencyMinerLargeMessageProxy(), LargeMessageProxy.Priority.HIGH));
 	}
 
 	private Behavior<Message> handle(ReceptionistListingMessage message) {
@@ -110,7 +279,277 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 
 	private Behavior<Message> handle(TaskMessage message) {
 		this.getContext().getLog().info("got a tastMessage");
-			findInclusionDependency(message);
+		this.waitingTasks.add(message);
+		processWaitingTasks();
+		return this;
+	}
+
+	private Behavior<Message> handle(ColumnMessage message) {
+		Column column = message.getColumn();
+		this.requestedColumns.remove(column.getId());
+		this.columnCache.put(column);
+		this.availableColumns.put(column.getId(), column);
+		processWaitingTasks();
+		return this;
+	}
+
+	/**
+	 * Runs the waiting tasks in their order for as long as their columns are available and asks the Miner for the missing columns of the first task that cannot run yet
+	 */
+	private void processWaitingTasks(){
+		while (!this.waitingTasks.isEmpty()) {
+			TaskMessage task = this.waitingTasks.peek();
+			Set<Integer> missingColumns = new HashSet<>();
+			for (int columnId : task.getReferencedColumns())
+				if (!this.findColumn(columnId))
+					missingColumns.add(columnId);
+			for (int columnId : task.getDependentColumns())
+				if (!this.findColumn(columnId))
+					missingColumns.add(columnId);
+			if (!missingColumns.isEmpty()) {
+				missingColumns.removeAll(this.requestedColumns);
+				if (!missingColumns.isEmpty()) {
+					this.requestedColumns.addAll(missingColumns);
+					LargeMessageProxy.LargeMessage requestMessage = new DependencyMiner.ColumnRequestMessage(this.getContext().getSelf(), missingColumns.stream().mapToInt(Integer::intValue).toArray());
+					this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(requestMessage, task.getDependencyMinerLargeMessageProxy(), LargeMessageProxy.Priority.HIGH));
+				}
+				return;
+			}
+			this.waitingTasks.poll();
+			findInclusionDependencies(task);
+			this.availableColumns.clear();
+		}
+	}
+
+	/**
+	 * @return True if the column is available for the first waiting task, either because it was just received or because it is cached
+	 */
+	private boolean findColumn(int columnId){
+		if (this.availableColumns.containsKey(columnId))
+			return true;
+		Column column = this.columnCache.get(columnId);
+		if (column == null)
+			return false;
+		this.availableColumns.put(columnId, column);
+		return true;
+	}
+
+	private Behavior<Message> handle(SpiderTaskMessage message) {
+		this.getContext().getLog().info("Validating all candidates of {} columns in one pass over partition {}", message.getColumns().length, message.getTask());
+		int[][] columnValues = new int[message.getColumns().length][];
+		for (int column = 0; column < columnValues.length; column++)
+			columnValues[column] = message.getColumns()[column].getValues();
+		long[][] referencedColumns = Spider.validate(columnValues, message.getCandidates());
+
+		LargeMessageProxy.LargeMessage resultMessage = new DependencyMiner.SpiderResultMessage(this.getContext().getSelf(), message.getTask(), referencedColumns);
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(resultMessage, message.getDependencyMinerLargeMessageProxy()));
+		return this;
+	}
+
+	private Behavior<Message> handle(NaryTaskMessage message) {
+		long[][] referencedValues = message.getReferencedValues();
+		this.getContext().getLog().info("Checking {} n-ary candidates of task {}", referencedValues.length, message.getTask());
+		BitSet foundINDs = new BitSet(referencedValues.length);
+		for (int i = 0; i < referencedValues.length; i++)
+			if (isContained(message.getDependentValues(), referencedValues[i]))
+				foundINDs.set(i);
+
+		LargeMessageProxy.LargeMessage completionMessage = new DependencyMiner.CompletionMessage(this.getContext().getSelf(), message.getTask(), foundINDs.toLongArray());
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(completionMessage, message.getDependencyMinerLargeMessageProxy(), LargeMessageProxy.Priority.HIGH));
+		return this;
+	}
+
+	/**
+	 * @return True if every value of the sorted dependent array is also in the sorted referenced array
+	 */
+	private static boolean isContained(long[] dependent, long[] referenced) {
+		if (dependent.length > referenced.length)
+			return false;
+		int position = 0;
+		for (long value : dependent) {
+			while (position < referenced.length && referenced[position] < value)
+				position++;
+			if (position == referenced.length || referenced[position] != value)
+				return false;
+			position++;
+		}
+		return true;
+	}
+
+	private Behavior<Message> handle(IngestionTaskMessage message) {
+		this.getContext().getLog().info("Reading {} splits and collecting the values of bucket {}", message.getSplits().length, message.getBucket());
+		this.ingestionTask = message;
+		this.inputConfiguration = new InputConfiguration();
+		this.inputConfiguration.update(message.getInputFormat());
+		this.splitCounter = 0;
+
+		int numBuckets = message.getBucketOwners().size();
+		this.shuffleBuffers = new ArrayList<>(numBuckets);
+		this.shuffleBufferSizes = new int[numBuckets];
+		this.sentShuffleMessages = new int[numBuckets];
+		this.bucketDictionary = new ValueDictionary();
+		this.bucketValues = new IntOpenHashSet[message.getNumColumns()];
+		for (int column = 0; column < message.getNumColumns(); column++)
+			this.bucketValues[column] = new IntOpenHashSet();
+		for (int bucket = 0; bucket < numBuckets; bucket++) {
+			List<ObjectOpenHashSet<String>> buffer = new ArrayList<>(message.getNumColumns());
+			for (int column = 0; column < message.getNumColumns(); column++)
+				buffer.add(new ObjectOpenHashSet<>());
+			this.shuffleBuffers.add(buffer);
+		}
+		this.receivedShuffleMessages = new int[numBuckets];
+		this.expectedShuffleMessages = new int[numBuckets];
+		Arrays.fill(this.expectedShuffleMessages, -1);
+
+		this.getContext().getSelf().tell(new ReadSplitMessage());
+		while (!this.earlyShuffleMessages.isEmpty()) {
+			Message earlyMessage = this.earlyShuffleMessages.poll();
+			if (earlyMessage instanceof ShuffleValuesMessage)
+				this.handle((ShuffleValuesMessage) earlyMessage);
+			else
+				this.handle((ShuffleEndMessage) earlyMessage);
+		}
+		return this;
+	}
+
+	private Behavior<Message> handle(ReadSplitMessage message) throws IOException {
+		// We read one batch per message, so that the values that the other workers send us do not pile up in the mailbox meanwhile
+		InputSplit[] splits = this.ingestionTask.getSplits();
+		if (this.splitCounter < splits.length) {
+			InputSplit split = splits[this.splitCounter];
+			if (this.splitReader == null) {
+				this.splitReader = this.inputConfiguration.createRecordReader(new File(split.getPath()), split.getStartOffset(), split.getEndOffset());
+				// Only the range at the beginning of the file contains the header
+				if (this.inputConfiguration.isFileHasHeader() && split.getStartOffset() == 0)
+					this.splitReader.readNext();
+			}
+			int[] columnIds = split.getColumnIds();
+			for (int i = 0; i < this.batchSize; i++) {
+				String[] line = this.splitReader.readNext();
+				if (line == null) {
+					this.splitReader.close();
+					this.splitReader = null;
+					this.splitCounter++;
+					break;
+				}
+				for (int column = 0; column < columnIds.length; column++)
+					this.shuffle(columnIds[column], column < line.length ? line[column] : null);
+			}
+			this.getContext().getSelf().tell(new ReadSplitMessage());
+			return this;
+		}
+
+		this.getContext().getLog().info("Read all splits; sending the last values to the other buckets");
+		int ownBucket = this.ingestionTask.getBucket();
+		for (int bucket = 0; bucket < this.shuffleBuffers.size(); bucket++) {
+			if (bucket == ownBucket)
+				continue;
+			this.flushShuffleBuffer(bucket);
+			LargeMessageProxy.LargeMessage endMessage = new ShuffleEndMessage(ownBucket, this.sentShuffleMessages[bucket]);
+			this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(endMessage, this.ingestionTask.getBucketOwners().get(bucket)));
+		}
+		this.shuffleBuffers = null;
+		// Our own values went directly into our bucket
+		this.expectedShuffleMessages[ownBucket] = 0;
+		this.validateBucketIfComplete();
+		return this;
+	}
+
+	private void shuffle(int columnId, String value) {
+		int bucket = Column.bucketOf(value == null ? 0 : value.hashCode(), this.shuffleBuffers.size());
+		if (bucket == this.ingestionTask.getBucket()) {
+			this.bucketValues[columnId].add(this.bucketDictionary.encode(value));
+			return;
+		}
+		if (this.shuffleBuffers.get(bucket).get(columnId).add(value) && ++this.shuffleBufferSizes[bucket] >= this.batchSize)
+			this.flushShuffleBuffer(bucket);
+	}
+
+	private void flushShuffleBuffer(int bucket) {
+		List<ObjectOpenHashSet<String>> buffer = this.shuffleBuffers.get(bucket);
+		IntArrayList columnIds = new IntArrayList();
+		List<String[]> values = new ArrayList<>();
+		for (int column = 0; column < buffer.size(); column++) {
+			if (buffer.get(column).isEmpty())
+				continue;
+			columnIds.add(column);
+			values.add(buffer.get(column).toArray(new String[0]));
+			buffer.get(column).clear();
+		}
+		this.shuffleBufferSizes[bucket] = 0;
+		if (columnIds.isEmpty())
+			return;
+
+		LargeMessageProxy.LargeMessage valuesMessage = new ShuffleValuesMessage(this.ingestionTask.getBucket(), columnIds.toIntArray(), values.toArray(new String[0][]));
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(valuesMessage, this.ingestionTask.getBucketOwners().get(bucket)));
+		this.sentShuffleMessages[bucket]++;
+	}
+
+	private Behavior<Message> handle(ShuffleValuesMessage message) {
+		if (this.ingestionTask == null) {
+			this.earlyShuffleMessages.add(message);
+			return this;
+		}
+		for (int i = 0; i < message.getColumnIds().length; i++) {
+			IntOpenHashSet values = this.bucketValues[message.getColumnIds()[i]];
+			for (String value : message.getValues()[i])
+				values.add(this.bucketDictionary.encode(value));
+		}
+		this.receivedShuffleMessages[message.getSender()]++;
+		this.validateBucketIfComplete();
+		return this;
+	}
+
+	private Behavior<Message> handle(ShuffleEndMessage message) {
+		if (this.ingestionTask == null) {
+			this.earlyShuffleMessages.add(message);
+			return this;
+		}
+		this.expectedShuffleMessages[message.getSender()] = message.getNumMessages();
+		this.validateBucketIfComplete();
+		return this;
+	}
+
+	/**
+	 * As soon as every worker (including us) sent all values of our bucket, we validate all candidates on the bucket with the SPIDER kernel
+	 */
+	private void validateBucketIfComplete() {
+		for (int sender = 0; sender < this.expectedShuffleMessages.length; sender++)
+			if (this.receivedShuffleMessages[sender] != this.expectedShuffleMessages[sender])
+				return;
+
+		int numColumns = this.bucketValues.length;
+		int[][] columnValues = new int[numColumns][];
+		for (int column = 0; column < numColumns; column++) {
+			columnValues[column] = this.bucketValues[column].toIntArray();
+			Arrays.sort(columnValues[column]);
+			this.bucketValues[column] = null;
+		}
+		this.getContext().getLog().info("Validating all candidates on bucket {} with {} distinct values", this.ingestionTask.getBucket(), this.bucketDictionary.size());
+		// The kernel only compares ids, so the values are not needed anymore
+		this.bucketDictionary.close();
+		this.bucketDictionary = null;
+
+		long[][] candidates = new long[numColumns][];
+		for (int dependent = 0; dependent < numColumns; dependent++) {
+			BitSet referenced = new BitSet(numColumns);
+			referenced.set(0, numColumns);
+			referenced.clear(dependent);
+			candidates[dependent] = referenced.toLongArray();
+		}
+		long[][] referencedColumns = Spider.validate(columnValues, candidates);
+
+		LargeMessageProxy.LargeMessage resultMessage = new DependencyMiner.SpiderResultMessage(this.getContext().getSelf(), this.ingestionTask.getBucket(), referencedColumns);
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(resultMessage, this.ingestionTask.getDependencyMinerLargeMessageProxy()));
+		this.ingestionTask = null;
+		this.bucketValues = null;
+	}
+
+	private Behavior<Message> handle(PostStop signal) throws IOException {
+		if (this.splitReader != null)
+			this.splitReader.close();
+		if (this.bucketDictionary != null)
+			this.bucketDictionary.close();
 		return this;
 	}
 }
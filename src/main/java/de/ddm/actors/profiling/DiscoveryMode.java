@@ -0,0 +1,30 @@
+package de.ddm.actors.profiling;
+
+/**
+ * The ways in which the DependencyMiner distributes the validation of unary IND candidates over the workers.
+ */
+public enum DiscoveryMode {
+
+	/**
+	 * Every ordered pair of columns is validated as an independent task.
+	 */
+	PAIRWISE,
+
+	/**
+	 * All candidates are validated together in one synchronized merge over the sorted values of all columns.
+	 */
+	SPIDER,
+
+	/**
+	 * The values of all columns are hash-partitioned into buckets; every bucket is validated by a worker with the
+	 * SPIDER kernel and a candidate is valid if it survives in all buckets.
+	 */
+	BINDER,
+
+	/**
+	 * Like BINDER, but with one bucket per worker and without sending any values through the master: every worker reads
+	 * some splits of the input files from a path that all nodes share and sends each value to the worker that owns its
+	 * bucket. The master only receives the candidates that survived each bucket.
+	 */
+	DISTRIBUTED
+}
@@ -7,11 +7,14 @@ import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
-import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
+import de.ddm.configuration.RecordReader;
 import de.ddm.serialization.AkkaSerializable;
 import de.ddm.singletons.DomainConfigurationSingleton;
 import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.singletons.SystemConfigurationSingleton;
+import de.ddm.structures.ColumnStore;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,6 +22,7 @@ import lombok.NoArgsConstructor;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class InputReader extends AbstractBehavior<InputReader.Message> {
@@ -38,12 +42,17 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 		ActorRef<DependencyMiner.Message> replyTo;
 	}
 
+	/**
+	 * Grants the reader credits to send that many more batches; the reader sends them as fast as it can read them, so the miner can
+	 * process one batch while the next ones are read
+	 */
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class ReadBatchMessage implements Message {
 		private static final long serialVersionUID = -7915854043207237318L;
 		ActorRef<DependencyMiner.Message> replyTo;
+		int credits;
 	}
 
 	////////////////////////
@@ -52,17 +61,41 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 
 	public static final String DEFAULT_NAME = "inputReader";
 
-	public static Behavior<Message> create(final int id, final File inputFile) {
-		return Behaviors.setup(context -> new InputReader(context, id, inputFile));
+	/**
+	 * @param id the id of the file that is read
+	 * @param readerId the id of this reader; a large file is read by several readers that each read one byte range of it
+	 * @param startOffset the byte offset of the first record of the range; must be a record boundary
+	 * @param endOffset the byte offset after the last record of the range; must be a record boundary
+	 */
+	public static Behavior<Message> create(final int id, final int readerId, final File inputFile, final long startOffset, final long endOffset) {
+		return Behaviors.setup(context -> new InputReader(context, id, readerId, inputFile, startOffset, endOffset, null, null));
 	}
 
-	private InputReader(ActorContext<Message> context, final int id, final File inputFile) throws IOException, CsvValidationException {
+	/**
+	 * @param id the id of the file that is read
+	 * @param readerId the id of this reader
+	 * @param storedColumns the version of the file in the column store, whose values are read instead of parsing the file
+	 */
+	public static Behavior<Message> createFromColumnStore(final int id, final int readerId, final File inputFile, final ColumnStore columnStore, final File storedColumns) {
+		return Behaviors.setup(context -> new InputReader(context, id, readerId, inputFile, 0, 0, columnStore, storedColumns));
+	}
+
+	private InputReader(ActorContext<Message> context, final int id, final int readerId, final File inputFile, final long startOffset, final long endOffset, final ColumnStore columnStore, final File storedColumns) throws IOException, CsvValidationException {
 		super(context);
 		this.id = id;
-		this.reader = InputConfigurationSingleton.get().createCSVReader(inputFile);
+		this.readerId = readerId;
+		this.columnStore = columnStore;
+		this.storedColumns = storedColumns;
+		this.reader = storedColumns == null ? InputConfigurationSingleton.get().createRecordReader(inputFile, startOffset, endOffset) : null;
 		this.header = InputConfigurationSingleton.get().getHeader(inputFile);
-		
-		if (InputConfigurationSingleton.get().isFileHasHeader())
+		// The n-ary discovery in hard mode needs the values of a row together, so the batches stay row-aligned there
+		this.deduplicate = !SystemConfigurationSingleton.get().isHardMode();
+		this.sentValues = new ArrayList<>(this.header.length);
+		for (int column = 0; column < this.header.length; column++)
+			this.sentValues.add(new ObjectOpenHashSet<>());
+
+		// Only the range at the beginning of the file contains the header
+		if (this.reader != null && InputConfigurationSingleton.get().isFileHasHeader() && startOffset == 0)
 			this.reader.readNext();
 	}
 
@@ -71,9 +104,24 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 	/////////////////
 
 	private final int id;
+	private final int readerId;
 	private final int batchSize = DomainConfigurationSingleton.get().getInputReaderBatchSize();
-	private final CSVReader reader;
+	private final RecordReader reader;
+	// If the file is in the column store, we send its stored values column by column instead of parsing it
+	private final ColumnStore columnStore;
+	private final File storedColumns;
+	private ColumnStore.SegmentReader segmentReader;
+	private int storedColumn = 0;
 	private final String[] header;
+	private final boolean deduplicate;
+	// The values that this reader already sent for each column; once a set is full, further values are sent without remembering them
+	private final List<ObjectOpenHashSet<String>> sentValues;
+	private final int sentValuesCapacity = DomainConfigurationSingleton.get().getInputReaderSentValuesCapacity();
+	// The empty batch that marks the end of the range is sent only once, even if more credits arrive afterwards
+	private boolean finished = false;
+	// How long this reader waited for credits after it used up all of its credits
+	private long idleTime = 0;
+	private long idleSince = -1;
 
 	////////////////////
 	// Actor Behavior //
@@ -93,21 +141,89 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 		return this;
 	}
 
-	private Behavior<Message> handle(ReadBatchMessage message) throws IOException, CsvValidationException {
-		List<String[]> batch = new ArrayList<>(this.batchSize);
-		for (int i = 0; i < this.batchSize; i++) {
+	private Behavior<Message> handle(ReadBatchMessage message) throws IOException {
+		if (this.idleSince >= 0)
+			this.idleTime += System.currentTimeMillis() - this.idleSince;
+		for (int credit = 0; credit < message.getCredits() && !this.finished; credit++)
+			this.sendBatch(message.getReplyTo());
+		this.idleSince = System.currentTimeMillis();
+		return this;
+	}
+
+	private void sendBatch(ActorRef<DependencyMiner.Message> replyTo) throws IOException {
+		String[][] columns = new String[this.header.length][];
+		int numRows = this.storedColumns == null ? this.readRows(columns) : this.readStoredValues(columns);
+
+		replyTo.tell(new DependencyMiner.BatchMessage(this.id, this.readerId, numRows, columns));
+		if (numRows == 0) {
+			this.finished = true;
+			this.getContext().getLog().info("Reader {} finished its range after waiting {} ms for credits", this.readerId, this.idleTime);
+		}
+	}
+
+	/**
+	 * Reads the next batch of rows and transposes it into columns, so that each column can be deduplicated on its own
+	 * @return the number of rows that were read
+	 */
+	private int readRows(String[][] columns) throws IOException {
+		int[] columnSizes = new int[this.header.length];
+		for (int column = 0; column < this.header.length; column++)
+			columns[column] = new String[this.batchSize];
+		int numRows = 0;
+		for (; numRows < this.batchSize; numRows++) {
 			String[] line = this.reader.readNext();
 			if (line == null)
 				break;
-			batch.add(line);
+			for (int column = 0; column < this.header.length; column++) {
+				String value = column < line.length ? line[column] : null;
+				if (this.deduplicate && !this.isNew(column, value))
+					continue;
+				columns[column][columnSizes[column]++] = value;
+			}
 		}
+		for (int column = 0; column < this.header.length; column++)
+			columns[column] = Arrays.copyOf(columns[column], columnSizes[column]);
+		return numRows;
+	}
 
-		message.getReplyTo().tell(new DependencyMiner.BatchMessage(this.id, batch));
-		return this;
+	/**
+	 * Reads the next values of the stored columns, one column after the other; the stored values are distinct already
+	 * @return the number of values that were read
+	 */
+	private int readStoredValues(String[][] columns) throws IOException {
+		Arrays.fill(columns, new String[0]);
+		while (this.storedColumn < this.header.length) {
+			if (this.segmentReader == null)
+				this.segmentReader = this.columnStore.openSegment(this.storedColumns, this.storedColumn);
+			String[] values = this.segmentReader.read(this.batchSize);
+			if (values.length > 0) {
+				columns[this.storedColumn] = values;
+				return values.length;
+			}
+			this.segmentReader.close();
+			this.segmentReader = null;
+			this.storedColumn++;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return False if this reader already sent the value for the column, either in this batch or in an earlier one
+	 */
+	private boolean isNew(int column, String value) {
+		ObjectOpenHashSet<String> values = this.sentValues.get(column);
+		if (values.contains(value))
+			return false;
+		if (values.size() < this.sentValuesCapacity)
+			values.add(value);
+		return true;
 	}
 
 	private Behavior<Message> handle(PostStop signal) throws IOException {
-		this.reader.close();
+		if (this.reader != null)
+			this.reader.close();
+		if (this.segmentReader != null)
+			this.segmentReader.close();
 		return this;
 	}
 }
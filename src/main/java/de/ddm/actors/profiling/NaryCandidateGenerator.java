@@ -0,0 +1,109 @@
+package de.ddm.actors.profiling;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the n-ary IND candidates of the next level from the valid INDs of the current level, following the
+ * apriori approach of MIND: two valid INDs of arity n that agree on their first n - 1 column pairs are combined into
+ * a candidate of arity n + 1, which is only kept if all of its other subsets of arity n are valid as well. An IND of
+ * arity n is stored as an array of 2n column ids, its dependent columns followed by its referenced columns; the
+ * dependent columns are in ascending order, so that every IND has exactly one such array.
+ */
+public class NaryCandidateGenerator {
+
+	/**
+	 * @param validInds the valid INDs of one arity
+	 * @param columnFiles the id of the file of every column
+	 * @return the candidates of the next arity, sorted by their dependent columns
+	 */
+	public static List<int[]> generate(List<int[]> validInds, int[] columnFiles) {
+		List<int[]> candidates = new ArrayList<>();
+		if (validInds.isEmpty())
+			return candidates;
+		final int arity = validInds.get(0).length / 2;
+
+		Set<IntArrayList> valid = new HashSet<>(2 * validInds.size());
+		for (int[] ind : validInds)
+			valid.add(new IntArrayList(ind));
+
+		// INDs with the same first n - 1 column pairs become neighbours, ordered by their last dependent column
+		List<int[]> sorted = new ArrayList<>(validInds);
+		sorted.sort((a, b) -> {
+			int comparison = comparePrefixes(a, b, arity);
+			return comparison != 0 ? comparison : Integer.compare(a[arity - 1], b[arity - 1]);
+		});
+
+		int groupStart = 0;
+		while (groupStart < sorted.size()) {
+			int groupEnd = groupStart + 1;
+			while (groupEnd < sorted.size() && comparePrefixes(sorted.get(groupStart), sorted.get(groupEnd), arity) == 0)
+				groupEnd++;
+			for (int i = groupStart; i < groupEnd; i++) {
+				for (int j = i + 1; j < groupEnd; j++) {
+					int[] candidate = combine(sorted.get(i), sorted.get(j), arity, columnFiles);
+					if (candidate != null && allSubsetsValid(candidate, arity, valid))
+						candidates.add(candidate);
+				}
+			}
+			groupStart = groupEnd;
+		}
+		candidates.sort((a, b) -> Arrays.compare(a, 0, arity + 1, b, 0, arity + 1));
+		return candidates;
+	}
+
+	private static int comparePrefixes(int[] a, int[] b, int arity) {
+		int comparison = Arrays.compare(a, 0, arity - 1, b, 0, arity - 1);
+		return comparison != 0 ? comparison : Arrays.compare(a, arity, 2 * arity - 1, b, arity, 2 * arity - 1);
+	}
+
+	/**
+	 * @return the candidate that extends the IND first by the last column pair of the IND second, or null if they cannot be combined
+	 */
+	private static int[] combine(int[] first, int[] second, int arity, int[] columnFiles) {
+		int firstDependent = first[arity - 1];
+		int secondDependent = second[arity - 1];
+		int firstReferenced = first[2 * arity - 1];
+		int secondReferenced = second[2 * arity - 1];
+		if (firstDependent >= secondDependent)
+			return null;
+		// All dependent columns of an IND are from one file and so are all of its referenced columns
+		if (columnFiles[firstDependent] != columnFiles[secondDependent] || columnFiles[firstReferenced] != columnFiles[secondReferenced])
+			return null;
+		// Every referenced column may only be used once
+		for (int i = arity; i < 2 * arity; i++)
+			if (first[i] == secondReferenced)
+				return null;
+
+		int[] candidate = new int[2 * arity + 2];
+		System.arraycopy(first, 0, candidate, 0, arity);
+		candidate[arity] = secondDependent;
+		System.arraycopy(first, arity, candidate, arity + 1, arity);
+		candidate[2 * arity + 1] = secondReferenced;
+		return candidate;
+	}
+
+	/**
+	 * @return True if all subsets of the candidate that leave out one of its first n - 1 column pairs are valid; the other two subsets
+	 * are the INDs that the candidate was combined from
+	 */
+	private static boolean allSubsetsValid(int[] candidate, int arity, Set<IntArrayList> valid) {
+		for (int removed = 0; removed < arity - 1; removed++) {
+			IntArrayList subset = new IntArrayList(2 * arity);
+			for (int i = 0; i <= arity; i++)
+				if (i != removed)
+					subset.add(candidate[i]);
+			for (int i = 0; i <= arity; i++)
+				if (i != removed)
+					subset.add(candidate[arity + 1 + i]);
+			if (!valid.contains(subset))
+				return false;
+		}
+		return true;
+	}
+}
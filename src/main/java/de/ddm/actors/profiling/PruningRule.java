@@ -0,0 +1,69 @@
+package de.ddm.actors.profiling;
+
+/**
+ * Cheap checks on the statistics of two sealed columns that refute IND candidates before any values are compared.
+ * Each rule only refutes candidates that can certainly not be valid.
+ */
+public enum PruningRule {
+
+	/**
+	 * The dependent column has more distinct values than the referenced column.
+	 */
+	DISTINCT_COUNT {
+		@Override
+		public boolean refutes(Column dependent, Column referenced) {
+			return dependent.distinctCount() > referenced.distinctCount();
+		}
+	},
+
+	/**
+	 * The non-null values of the dependent column are not within the value range of the referenced column.
+	 */
+	VALUE_RANGE {
+		@Override
+		public boolean refutes(Column dependent, Column referenced) {
+			if (dependent.getMinValue() == null)
+				return false;
+			if (referenced.getMinValue() == null)
+				return true;
+			return dependent.getMinValue().compareTo(referenced.getMinValue()) < 0 || dependent.getMaxValue().compareTo(referenced.getMaxValue()) > 0;
+		}
+	},
+
+	/**
+	 * The dependent column holds values of a more general type than all values of the referenced column.
+	 */
+	VALUE_TYPE {
+		@Override
+		public boolean refutes(Column dependent, Column referenced) {
+			return dependent.getValueType().compareTo(referenced.getValueType()) > 0;
+		}
+	},
+
+	/**
+	 * The dependent column holds a value that is longer than all values of the referenced column.
+	 */
+	VALUE_LENGTH {
+		@Override
+		public boolean refutes(Column dependent, Column referenced) {
+			return dependent.getMaxLength() > referenced.getMaxLength();
+		}
+	},
+
+	/**
+	 * The Bloom filter of the dependent column has a bit that is not set in the Bloom filter of the referenced column.
+	 */
+	BLOOM_FILTER {
+		@Override
+		public boolean refutes(Column dependent, Column referenced) {
+			return !dependent.getBloomFilter().mightBeContainedIn(referenced.getBloomFilter());
+		}
+	};
+
+	/**
+	 * @param dependent the dependent column of the candidate
+	 * @param referenced the referenced column of the candidate
+	 * @return True if the candidate can certainly not be valid
+	 */
+	public abstract boolean refutes(Column dependent, Column referenced);
+}
@@ -0,0 +1,143 @@
+package de.ddm.actors.profiling;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+
+/**
+ * Validates all unary IND candidates of a set of columns in one pass, following the SPIDER algorithm: every column
+ * is consumed as a cursor over its sorted distinct values, and all cursors are advanced together in value order.
+ * Whenever a value is seen, every column that contains it can only depend on the columns that contain it as well,
+ * so all other candidates of these columns are refuted. Each value is read exactly once.
+ */
+public class Spider {
+
+	/**
+	 * @param columnValues the sorted distinct value ids of every column
+	 * @return for every dependent column the bits of all referenced columns that contain all of its values
+	 */
+	public static long[][] validate(int[][] columnValues) {
+		return validate(columnValues, null);
+	}
+
+	/**
+	 * @param columnValues the sorted distinct value ids of every column
+	 * @param candidates for every dependent column the bits of the referenced columns that are still candidates, or null if all columns are candidates
+	 * @return for every dependent column the bits of all candidate referenced columns that contain all of its values
+	 */
+	public static long[][] validate(int[][] columnValues, long[][] candidates) {
+		final int numColumns = columnValues.length;
+
+		BitSet[] referenced = new BitSet[numColumns];
+		int[] referencedCount = new int[numColumns];
+		initializeCandidates(candidates, referenced, referencedCount);
+
+		int[] positions = new int[numColumns];
+		PriorityQueue<Integer> cursors = new PriorityQueue<>(Math.max(1, numColumns), (a, b) -> Integer.compare(columnValues[a][positions[a]], columnValues[b][positions[b]]));
+		for (int column = 0; column < numColumns; column++)
+			if (columnValues[column].length > 0 && !isFinished(column, referenced, referencedCount))
+				cursors.add(column);
+
+		BitSet group = new BitSet(numColumns);
+		while (!cursors.isEmpty()) {
+			// Collect all columns whose cursor currently points to the smallest value
+			int firstColumn = cursors.poll();
+			int value = columnValues[firstColumn][positions[firstColumn]];
+			group.clear();
+			group.set(firstColumn);
+			while (!cursors.isEmpty() && columnValues[cursors.peek()][positions[cursors.peek()]] == value)
+				group.set(cursors.poll());
+
+			refuteOutsideOfGroup(group, referenced, referencedCount);
+
+			// Advance the cursors of the group unless a column is neither dependent nor referenced in any candidate anymore
+			for (int column = group.nextSetBit(0); column >= 0; column = group.nextSetBit(column + 1)) {
+				positions[column]++;
+				boolean exhausted = positions[column] == columnValues[column].length;
+				if (!exhausted && !isFinished(column, referenced, referencedCount))
+					cursors.add(column);
+			}
+		}
+		return toLongArrays(referenced);
+	}
+
+	/**
+	 * Like validate on value ids, but on columns whose sorted distinct values are read from disk one after the other, so that
+	 * the columns do not need to fit into memory; the values are compared in place in the mapped runs
+	 *
+	 * @param columnCursors a cursor before the first value of every column
+	 * @param candidates for every dependent column the bits of the referenced columns that are still candidates, or null if all columns are candidates
+	 * @return for every dependent column the bits of all candidate referenced columns that contain all of its values
+	 */
+	public static long[][] validate(SpilledColumn.Cursor[] columnCursors, long[][] candidates) throws IOException {
+		final int numColumns = columnCursors.length;
+
+		BitSet[] referenced = new BitSet[numColumns];
+		int[] referencedCount = new int[numColumns];
+		initializeCandidates(candidates, referenced, referencedCount);
+
+		PriorityQueue<Integer> cursors = new PriorityQueue<>(Math.max(1, numColumns), (a, b) -> columnCursors[a].compareTo(columnCursors[b]));
+		for (int column = 0; column < numColumns; column++)
+			if (columnCursors[column].advance() && !isFinished(column, referenced, referencedCount))
+				cursors.add(column);
+
+		BitSet group = new BitSet(numColumns);
+		while (!cursors.isEmpty()) {
+			int firstColumn = cursors.poll();
+			group.clear();
+			group.set(firstColumn);
+			while (!cursors.isEmpty() && columnCursors[cursors.peek()].compareTo(columnCursors[firstColumn]) == 0)
+				group.set(cursors.poll());
+
+			refuteOutsideOfGroup(group, referenced, referencedCount);
+
+			for (int column = group.nextSetBit(0); column >= 0; column = group.nextSetBit(column + 1))
+				if (!isFinished(column, referenced, referencedCount) && columnCursors[column].advance())
+					cursors.add(column);
+		}
+		return toLongArrays(referenced);
+	}
+
+	private static void initializeCandidates(long[][] candidates, BitSet[] referenced, int[] referencedCount) {
+		final int numColumns = referenced.length;
+		for (int dependent = 0; dependent < numColumns; dependent++) {
+			if (candidates == null) {
+				// Every column starts with all other columns as referenced candidates
+				referenced[dependent] = new BitSet(numColumns);
+				referenced[dependent].set(0, numColumns);
+			} else {
+				referenced[dependent] = BitSet.valueOf(candidates[dependent]);
+			}
+			referenced[dependent].clear(dependent);
+			for (int column = referenced[dependent].nextSetBit(0); column >= 0; column = referenced[dependent].nextSetBit(column + 1))
+				referencedCount[column]++;
+		}
+	}
+
+	/**
+	 * Each column of the group can only be included in the other columns of the group
+	 */
+	private static void refuteOutsideOfGroup(BitSet group, BitSet[] referenced, int[] referencedCount) {
+		for (int dependent = group.nextSetBit(0); dependent >= 0; dependent = group.nextSetBit(dependent + 1)) {
+			BitSet dependentCandidates = referenced[dependent];
+			for (int refuted = dependentCandidates.nextSetBit(0); refuted >= 0; refuted = dependentCandidates.nextSetBit(refuted + 1))
+				if (!group.get(refuted))
+					referencedCount[refuted]--;
+			dependentCandidates.and(group);
+		}
+	}
+
+	/**
+	 * @return True if the column is neither dependent nor referenced in any candidate anymore, so that its remaining values do not matter
+	 */
+	private static boolean isFinished(int column, BitSet[] referenced, int[] referencedCount) {
+		return referenced[column].isEmpty() && referencedCount[column] == 0;
+	}
+
+	private static long[][] toLongArrays(BitSet[] referenced) {
+		long[][] result = new long[referenced.length][];
+		for (int dependent = 0; dependent < referenced.length; dependent++)
+			result[dependent] = referenced[dependent].toLongArray();
+		return result;
+	}
+}
@@ -0,0 +1,294 @@
+package de.ddm.actors.profiling;
+
+import de.ddm.structures.MappedBuffers;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The values of a column for datasets that do not fit into memory. The values are collected in a buffer, which is
+ * written to disk as a sorted run whenever the DependencyMiner exceeds its memory budget. After reading, all runs of
+ * the column are merged into one run of its sorted distinct values, which the validation reads as a stream. Values are
+ * ordered by their UTF-8 bytes and null is smaller than all other values. The runs are read through memory mappings
+ * and written through direct buffers, so that merging and validating them puts no per-value objects on the heap.
+ */
+public class SpilledColumn {
+
+	// The number of runs that are merged at once, which bounds the number of open files
+	private static final int MERGE_FAN_IN = 64;
+	private static final int NULL_LENGTH = -1;
+	private static final int END_OF_RUN = -2;
+
+	// Large runs are mapped in regions of this size
+	private static final int MAPPED_REGION_SIZE = 1 << 28;
+
+	// The value that stands for null while the buffer is sorted; it is only recognized by its identity
+	private static final byte[] NULL_VALUE = new byte[0];
+
+	@Getter
+	private final int id;
+	private final File directory;
+
+	private ObjectOpenHashSet<String> buffer = new ObjectOpenHashSet<>();
+	@Getter
+	private long bufferedBytes = 0;
+	private final List<File> runs = new ArrayList<>();
+
+	/**
+	 * @param id the id of the Column whose values this is
+	 * @param directory the directory for the runs
+	 */
+	public SpilledColumn(int id, File directory) {
+		this.id = id;
+		this.directory = directory;
+	}
+
+	/**
+	 * @return the approximate number of bytes by which the buffer grew
+	 */
+	public long add(String value) {
+		if (!this.buffer.add(value))
+			return 0;
+		// An entry of the hash set, the String object and its characters
+		long size = 64 + (value == null ? 0 : 2L * value.length());
+		this.bufferedBytes += size;
+		return size;
+	}
+
+	/**
+	 * Writes the buffered values to disk as a sorted run
+	 *
+	 * @return the approximate number of bytes that were freed
+	 */
+	public long spill() throws IOException {
+		if (this.buffer.isEmpty())
+			return 0;
+		byte[][] values = new byte[this.buffer.size()][];
+		int i = 0;
+		for (String value : this.buffer)
+			values[i++] = value == null ? NULL_VALUE : value.getBytes(StandardCharsets.UTF_8);
+		this.buffer = new ObjectOpenHashSet<>();
+		Arrays.sort(values, SpilledColumn::compare);
+
+		File run = File.createTempFile("column" + this.id + "-", ".run", this.directory);
+		try (RunWriter writer = new RunWriter(run)) {
+			for (byte[] value : values)
+				writer.write(value == NULL_VALUE ? null : ByteBuffer.wrap(value), 0, value == NULL_VALUE ? NULL_LENGTH : value.length);
+		}
+		this.runs.add(run);
+
+		long freedBytes = this.bufferedBytes;
+		this.bufferedBytes = 0;
+		return freedBytes;
+	}
+
+	/**
+	 * Spills the remaining buffer and merges all runs into one run of distinct values
+	 */
+	public void merge() throws IOException {
+		this.spill();
+		while (this.runs.size() > 1) {
+			// Merging the oldest runs first and appending the result keeps the merge tree balanced
+			List<File> inputs = new ArrayList<>(this.runs.subList(0, Math.min(MERGE_FAN_IN, this.runs.size())));
+			this.runs.subList(0, inputs.size()).clear();
+			this.runs.add(mergeRuns(inputs));
+		}
+	}
+
+	/**
+	 * @return a cursor over the sorted distinct values of the column; merge must have been called before
+	 */
+	public Cursor open() throws IOException {
+		return new Cursor(this.runs.isEmpty() ? null : this.runs.get(0));
+	}
+
+	public void delete() throws IOException {
+		for (File run : this.runs)
+			Files.deleteIfExists(run.toPath());
+		this.runs.clear();
+		this.buffer = null;
+	}
+
+	private File mergeRuns(List<File> inputs) throws IOException {
+		List<Cursor> cursors = new ArrayList<>(inputs.size());
+		PriorityQueue<Cursor> queue = new PriorityQueue<>(inputs.size(), Cursor::compareTo);
+		File merged = File.createTempFile("column" + this.id + "-", ".run", this.directory);
+		try (RunWriter writer = new RunWriter(merged)) {
+			for (File input : inputs) {
+				Cursor cursor = new Cursor(input);
+				cursors.add(cursor);
+				if (cursor.advance())
+					queue.add(cursor);
+			}
+			while (!queue.isEmpty()) {
+				Cursor cursor = queue.poll();
+				writer.write(cursor.region, cursor.valueStart, cursor.valueLength);
+				// Every run is free of duplicates, so a value occurs at most once in each of the other runs
+				while (!queue.isEmpty() && queue.peek().compareTo(cursor) == 0) {
+					Cursor duplicate = queue.poll();
+					if (duplicate.advance())
+						queue.add(duplicate);
+				}
+				if (cursor.advance())
+					queue.add(cursor);
+			}
+		} finally {
+			for (Cursor cursor : cursors)
+				cursor.close();
+		}
+		for (File input : inputs)
+			Files.deleteIfExists(input.toPath());
+		return merged;
+	}
+
+	private static int compare(byte[] a, byte[] b) {
+		if (a == b)
+			return 0;
+		if (a == NULL_VALUE)
+			return -1;
+		if (b == NULL_VALUE)
+			return 1;
+		return Arrays.compareUnsigned(a, b);
+	}
+
+	/**
+	 * Reads the values of a run one after the other directly from a memory mapping of the run, so that reading a value allocates
+	 * nothing on the heap. Large runs are mapped in regions, and a region is released as soon as the cursor moves past it.
+	 */
+	public static class Cursor implements Closeable, Comparable<Cursor> {
+
+		private final FileChannel channel;
+		private final long size;
+		private MappedByteBuffer region;
+		private long regionStart = 0;
+		// The position of the next record in the region, and the position and length of the current value
+		private int nextRecord = 0;
+		private int valueStart = 0;
+		private int valueLength = 0;
+
+		private Cursor(File run) throws IOException {
+			this.channel = run == null ? null : FileChannel.open(run.toPath(), StandardOpenOption.READ);
+			this.size = run == null ? 0 : this.channel.size();
+		}
+
+		/**
+		 * @return False if there is no next value
+		 */
+		public boolean advance() throws IOException {
+			if (this.channel == null)
+				return false;
+			this.ensureMapped(Integer.BYTES);
+			int length = this.region.getInt(this.nextRecord);
+			if (length == END_OF_RUN)
+				return false;
+			int recordLength = Integer.BYTES + Math.max(0, length);
+			this.ensureMapped(recordLength);
+			this.valueStart = this.nextRecord + Integer.BYTES;
+			this.valueLength = length;
+			this.nextRecord += recordLength;
+			return true;
+		}
+
+		/**
+		 * Maps the region that starts at the next record if the current region does not contain the given number of bytes of it
+		 */
+		private void ensureMapped(int bytes) throws IOException {
+			if (this.region != null && this.nextRecord + bytes <= this.region.limit())
+				return;
+			long position = this.regionStart + this.nextRecord;
+			if (position + bytes > this.size)
+				throw new EOFException("The run ends within a record");
+			MappedBuffers.unmap(this.region);
+			this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(this.size - position, Math.max(MAPPED_REGION_SIZE, bytes)));
+			this.regionStart = position;
+			this.nextRecord = 0;
+		}
+
+		/**
+		 * Compares the current values of both cursors by their bytes, as unsigned numbers, in place
+		 */
+		@Override
+		public int compareTo(Cursor other) {
+			if (this.valueLength == NULL_LENGTH || other.valueLength == NULL_LENGTH)
+				return Boolean.compare(this.valueLength != NULL_LENGTH, other.valueLength != NULL_LENGTH);
+			int length = Math.min(this.valueLength, other.valueLength);
+			for (int i = 0; i < length; i++) {
+				int difference = Byte.toUnsignedInt(this.region.get(this.valueStart + i)) - Byte.toUnsignedInt(other.region.get(other.valueStart + i));
+				if (difference != 0)
+					return difference;
+			}
+			return Integer.compare(this.valueLength, other.valueLength);
+		}
+
+		@Override
+		public void close() throws IOException {
+			MappedBuffers.unmap(this.region);
+			this.region = null;
+			if (this.channel != null)
+				this.channel.close();
+		}
+	}
+
+	/**
+	 * Writes the records of a run through a direct buffer, so that values can be copied from a mapped run without passing through the heap
+	 */
+	private static class RunWriter implements Closeable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+		private RunWriter(File run) throws IOException {
+			this.channel = FileChannel.open(run.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		/**
+		 * @param length the number of bytes of the value in the source, or NULL_LENGTH for null
+		 */
+		private void write(ByteBuffer source, int start, int length) throws IOException {
+			this.putInt(length);
+			for (int i = 0; i < length; i++) {
+				if (!this.buffer.hasRemaining())
+					this.flush();
+				this.buffer.put(source.get(start + i));
+			}
+		}
+
+		private void putInt(int value) throws IOException {
+			if (this.buffer.remaining() < Integer.BYTES)
+				this.flush();
+			this.buffer.putInt(value);
+		}
+
+		private void flush() throws IOException {
+			this.buffer.flip();
+			while (this.buffer.hasRemaining())
+				this.channel.write(this.buffer);
+			this.buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				this.putInt(END_OF_RUN);
+				this.flush();
+			} finally {
+				this.channel.close();
+				MappedBuffers.unmap(this.buffer);
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package de.ddm.actors.profiling;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+/**
+ * The kernels that decide whether all values of a dependent column are contained in a referenced column. Both
+ * expect the sorted and distinct value ids of sealed columns.
+ */
+public enum ValidationStrategy {
+
+	/**
+	 * Builds a hash set of the referenced values and probes it with every dependent value.
+	 */
+	HASH {
+		@Override
+		public boolean isContained(int[] dependent, int[] referenced) {
+			if (dependent.length > referenced.length)
+				return false;
+			IntOpenHashSet referencedValues = new IntOpenHashSet(referenced);
+			for (int value : dependent)
+				if (!referencedValues.contains(value))
+					return false;
+			return true;
+		}
+
+		@Override
+		public boolean[] findContaining(int[] dependent, int[][] referenced) {
+			boolean[] containing = new boolean[referenced.length];
+			IntOpenHashSet[] referencedValues = new IntOpenHashSet[referenced.length];
+			int[] alive = new int[referenced.length];
+			int numAlive = 0;
+			for (int i = 0; i < referenced.length; i++) {
+				if (dependent.length > referenced[i].length)
+					continue;
+				referencedValues[i] = new IntOpenHashSet(referenced[i]);
+				alive[numAlive++] = i;
+			}
+			for (int valueIndex = 0; valueIndex < dependent.length && numAlive > 0; valueIndex++) {
+				int value = dependent[valueIndex];
+				for (int a = numAlive - 1; a >= 0; a--)
+					if (!referencedValues[alive[a]].contains(value))
+						alive[a] = alive[--numAlive];
+			}
+			for (int a = 0; a < numAlive; a++)
+				containing[alive[a]] = true;
+			return containing;
+		}
+	},
+
+	/**
+	 * Walks both sorted arrays in one linear scan and stops at the first dependent value that is missing.
+	 */
+	MERGE {
+		@Override
+		public boolean isContained(int[] dependent, int[] referenced) {
+			if (dependent.length > referenced.length)
+				return false;
+			int referencedIndex = 0;
+			for (int value : dependent) {
+				while (referencedIndex < referenced.length && referenced[referencedIndex] < value)
+					referencedIndex++;
+				if (referencedIndex == referenced.length || referenced[referencedIndex] != value)
+					return false;
+				referencedIndex++;
+			}
+			return true;
+		}
+
+		@Override
+		public boolean[] findContaining(int[] dependent, int[][] referenced) {
+			boolean[] containing = new boolean[referenced.length];
+			int[] alive = new int[referenced.length];
+			int[] positions = new int[referenced.length];
+			int numAlive = 0;
+			for (int i = 0; i < referenced.length; i++)
+				if (dependent.length <= referenced[i].length)
+					alive[numAlive++] = i;
+			for (int valueIndex = 0; valueIndex < dependent.length && numAlive > 0; valueIndex++) {
+				int value = dependent[valueIndex];
+				for (int a = numAlive - 1; a >= 0; a--) {
+					int[] values = referenced[alive[a]];
+					int position = positions[alive[a]];
+					while (position < values.length && values[position] < value)
+						position++;
+					if (position == values.length || values[position] != value)
+						alive[a] = alive[--numAlive];
+					else
+						positions[alive[a]] = position + 1;
+				}
+			}
+			for (int a = 0; a < numAlive; a++)
+				containing[alive[a]] = true;
+			return containing;
+		}
+	};
+
+	/**
+	 * @param dependent the sorted distinct values of the dependent column
+	 * @param referenced the sorted distinct values of the referenced column
+	 * @return True if every dependent value is also a referenced value
+	 */
+	public abstract boolean isContained(int[] dependent, int[] referenced);
+
+	/**
+	 * Checks one dependent column against many referenced columns while reading the dependent values only once;
+	 * referenced columns are dropped as soon as one dependent value is missing in them.
+	 *
+	 * @param dependent the sorted distinct values of the dependent column
+	 * @param referenced the sorted distinct values of each referenced column
+	 * @return for each referenced column whether it contains every dependent value
+	 */
+	public abstract boolean[] findContaining(int[] dependent, int[][] referenced);
+}
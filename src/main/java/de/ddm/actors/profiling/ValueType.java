@@ -0,0 +1,43 @@
+package de.ddm.actors.profiling;
+
+/**
+ * The value types that are inferred for columns while they are read. The types are ordered from the most to the
+ * least specific one, i.e., every INTEGER value is also a DECIMAL value and every value is a TEXT value.
+ */
+public enum ValueType {
+
+	INTEGER,
+	DECIMAL,
+	TEXT;
+
+	/**
+	 * @param value a non-null value
+	 * @return the most specific type that describes the value
+	 */
+	public static ValueType of(String value) {
+		int start = 0;
+		if (!value.isEmpty() && (value.charAt(0) == '-' || value.charAt(0) == '+'))
+			start = 1;
+		int digits = 0;
+		int points = 0;
+		for (int i = start; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9')
+				digits++;
+			else if (c == '.')
+				points++;
+			else
+				return TEXT;
+		}
+		if (digits == 0 || points > 1)
+			return TEXT;
+		return points == 0 ? INTEGER : DECIMAL;
+	}
+
+	/**
+	 * @return the more general one of the two types
+	 */
+	public ValueType widen(ValueType other) {
+		return this.compareTo(other) >= 0 ? this : other;
+	}
+}
@@ -2,6 +2,8 @@ package de.ddm.configuration;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
+import de.ddm.actors.profiling.DiscoveryMode;
+import de.ddm.actors.profiling.ValidationStrategy;
 import de.ddm.singletons.InputConfigurationSingleton;
 import de.ddm.singletons.SystemConfigurationSingleton;
 
@@ -21,6 +23,33 @@ public class CommandMaster extends Command {
 	@Parameter(names = {"-hm", "--hardMode"}, description = "Solve the hard version of the task", required = false, arity = 1)
 	boolean hardMode = SystemConfigurationSingleton.get().isHardMode();
 
+	@Parameter(names = {"-dm", "--discoveryMode"}, description = "How the IND candidates are validated: PAIRWISE checks every pair of columns in its own task, SPIDER checks all candidates in one merge over all columns, BINDER checks all candidates on hash-partitioned buckets of the values, DISTRIBUTED does the same with one bucket per worker and lets the workers read the input files themselves from a path that all nodes share", required = false)
+	DiscoveryMode discoveryMode = SystemConfigurationSingleton.get().getDiscoveryMode();
+
+	@Parameter(names = {"-nb", "--numBuckets"}, description = "The number of buckets into which the values are partitioned in BINDER mode; 0 means two buckets per registered worker", required = false)
+	int numBuckets = SystemConfigurationSingleton.get().getNumBuckets();
+
+	@Parameter(names = {"-ew", "--expectedWorkers"}, description = "The number of workers that must register in DISTRIBUTED mode before the input is split among them; 0 means the local workers of the master, and if there are none, the workers that registered until the join deadline", required = false)
+	int expectedWorkers = SystemConfigurationSingleton.get().getExpectedWorkers();
+
+	@Parameter(names = {"-jd", "--joinDeadline"}, description = "The seconds after the start after which DISTRIBUTED mode splits the input among the workers that have registered so far, even if fewer than the expected workers registered", required = false)
+	int joinDeadline = SystemConfigurationSingleton.get().getJoinDeadline();
+
+	@Parameter(names = {"-vst", "--validationStrategy"}, description = "The kernel that validates IND candidates on the sorted column values: HASH probes a hash set, MERGE runs a linear merge scan", required = false)
+	ValidationStrategy validationStrategy = SystemConfigurationSingleton.get().getValidationStrategy();
+
+	@Parameter(names = {"-inc", "--incremental"}, description = "Continue from the profiling state of the previous run: read only the rows that were appended to the input files since and re-validate only the candidates that these rows can change; only for unary INDs in PAIRWISE mode", required = false, arity = 1)
+	boolean incremental = SystemConfigurationSingleton.get().isIncremental();
+
+	@Parameter(names = {"-cst", "--columnStore"}, description = "Load the sorted distinct values of every column of an unchanged input file from the on-disk column store instead of parsing the file, and store the columns of all parsed files for the next run; not in hard mode", required = false, arity = 1)
+	boolean columnStore = SystemConfigurationSingleton.get().isColumnStore();
+
+	@Parameter(names = {"-smb", "--spillMemoryBudget"}, description = "The memory in MB for the values of all columns on the master; beyond it, the values are spilled to disk as sorted runs and validated with an external merge, so the dataset does not need to fit into memory; 0 disables spilling; not in hard mode or DISTRIBUTED mode", required = false)
+	int spillMemoryBudget = SystemConfigurationSingleton.get().getSpillMemoryBudget();
+
+	@Parameter(names = {"-bif", "--batchesInFlight"}, description = "The number of batches that every input reader may read ahead of the Miner; more batches keep the readers busy while the Miner is slow, fewer keep less unprocessed input in memory", required = false)
+	int batchesInFlight = SystemConfigurationSingleton.get().getBatchesInFlight();
+
 	@Parameter(names = {"-ip", "--inputPath"}, description = "Input path for the input data; all files in this folder are considered", required = false, arity = 1)
 	String inputPath = InputConfigurationSingleton.get().getInputPath();
 
@@ -44,4 +73,7 @@ public class CommandMaster extends Command {
 
 	@Parameter(names = {"-viw", "--valueIgnoreLeadingWhitespace"}, description = "Ignore i.e. delete all whitespaces preceding any read value", required = false, arity = 1)
 	boolean attributeIgnoreLeadingWhitespace = InputConfigurationSingleton.get().isValueIgnoreLeadingWhitespace();
+
+	@Parameter(names = {"-cr", "--csvReader"}, description = "The parser for the input files: OPENCSV decodes and parses them with OpenCSV, MAPPED memory-maps them and tokenizes their bytes directly, which is faster and decodes every distinct value of a column only once", required = false)
+	CsvReaderType csvReaderType = InputConfigurationSingleton.get().getCsvReaderType();
 }
@@ -0,0 +1,17 @@
+package de.ddm.configuration;
+
+/**
+ * The implementations that can parse the input files.
+ */
+public enum CsvReaderType {
+
+	/**
+	 * Decodes the file through its charset and parses it with OpenCSV.
+	 */
+	OPENCSV,
+
+	/**
+	 * Memory-maps the file and tokenizes it directly on its bytes; see MappedCsvReader.
+	 */
+	MAPPED
+}
@@ -7,6 +7,28 @@ public class DomainConfiguration {
 
 	private final int inputReaderBatchSize = 10000;
 
+	private final long inputReaderSplitSizeInBytes = 64L * 1024 * 1024;
+
+	private final int inputReaderSentValuesCapacity = 1 << 18;
+
+	private final int csvReaderInternCapacity = 1 << 16;
+
 	private final String resultCollectorOutputFileName = "results.txt";
 
+	private final String profilingStateFileName = "profiling.state";
+
+	private final String columnStoreDirectoryName = "columnstore";
+
+	private final int dependencyWorkerTaskBatchSize = 256;
+
+	private final int dependencyWorkerTasksInFlight = 2;
+
+	private final int dependencyMinerMaxNaryArity = 10;
+
+	private final long columnCacheSizeInBytes = 64L * 1024 * 1024;
+
+	private final int bloomFilterSizeInBits = 1 << 16;
+
+	private final int bloomFilterHashFunctions = 2;
+
 }
@@ -6,14 +6,23 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.enums.CSVReaderNullFieldIndicator;
 import com.opencsv.exceptions.CsvValidationException;
+import de.ddm.singletons.DomainConfigurationSingleton;
 import lombok.Data;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class InputConfiguration {
@@ -26,6 +35,7 @@ public class InputConfiguration {
 	private char valueEscape = '\\';
 	private boolean valueStrictQuotes = false;
 	private boolean valueIgnoreLeadingWhitespace = false;
+	private CsvReaderType csvReaderType = CsvReaderType.OPENCSV;
 
 	public void update(CommandMaster commandMaster) {
 		this.inputPath = commandMaster.inputPath;
@@ -36,6 +46,23 @@ public class InputConfiguration {
 		this.valueEscape = commandMaster.attributeEscape;
 		this.valueStrictQuotes = commandMaster.attributeStrictQuotes;
 		this.valueIgnoreLeadingWhitespace = commandMaster.attributeIgnoreLeadingWhitespace;
+		this.csvReaderType = commandMaster.csvReaderType;
+	}
+
+	public void update(InputFormat inputFormat) {
+		this.fileHasHeader = inputFormat.isFileHasHeader();
+		this.charset = Charset.forName(inputFormat.getCharset());
+		this.valueSeparator = inputFormat.getValueSeparator();
+		this.valueQuote = inputFormat.getValueQuote();
+		this.valueEscape = inputFormat.getValueEscape();
+		this.valueStrictQuotes = inputFormat.isValueStrictQuotes();
+		this.valueIgnoreLeadingWhitespace = inputFormat.isValueIgnoreLeadingWhitespace();
+		this.csvReaderType = inputFormat.getCsvReaderType();
+	}
+
+	public InputFormat toInputFormat() {
+		return new InputFormat(this.fileHasHeader, this.charset.name(), this.valueSeparator, this.valueQuote, this.valueEscape,
+				this.valueStrictQuotes, this.valueIgnoreLeadingWhitespace, this.csvReaderType);
 	}
 
 	public File[] getInputFiles() {
@@ -43,6 +70,55 @@ public class InputConfiguration {
 	}
 
 	public CSVReader createCSVReader(File inputFile) throws IOException {
+		return this.createCSVReader(Files.newBufferedReader(inputFile.toPath(), this.charset));
+	}
+
+	/**
+	 * @param inputFile the file to read
+	 * @param startOffset the byte offset of the first record to read; must be a record boundary
+	 * @param endOffset the byte offset after the last record to read; must be a record boundary
+	 * @return a reader for the records between the two offsets
+	 */
+	public CSVReader createCSVReader(File inputFile, long startOffset, long endOffset) throws IOException {
+		FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+		channel.position(startOffset);
+		InputStream input = new BoundedInputStream(Channels.newInputStream(channel), endOffset - startOffset);
+		return this.createCSVReader(new BufferedReader(new InputStreamReader(input, this.charset)));
+	}
+
+	/**
+	 * @param inputFile the file to read
+	 * @param startOffset the byte offset of the first record to read; must be a record boundary
+	 * @param endOffset the byte offset after the last record to read; must be a record boundary
+	 * @return a reader of the configured type for the records between the two offsets
+	 */
+	public RecordReader createRecordReader(File inputFile, long startOffset, long endOffset) throws IOException {
+		switch (this.csvReaderType) {
+			case MAPPED:
+				return new MappedCsvReader(inputFile, startOffset, endOffset, this, DomainConfigurationSingleton.get().getCsvReaderInternCapacity());
+			case OPENCSV:
+				CSVReader reader = this.createCSVReader(inputFile, startOffset, endOffset);
+				return new RecordReader() {
+					@Override
+					public String[] readNext() throws IOException {
+						try {
+							return reader.readNext();
+						} catch (CsvValidationException e) {
+							throw new IOException(e);
+						}
+					}
+
+					@Override
+					public void close() throws IOException {
+						reader.close();
+					}
+				};
+			default:
+				throw new AssertionError();
+		}
+	}
+
+	private CSVReader createCSVReader(BufferedReader buffer) {
 		CSVParser parser = new CSVParserBuilder()
 				.withSeparator(this.valueSeparator)
 				.withQuoteChar(this.valueQuote)
@@ -52,10 +128,88 @@ public class InputConfiguration {
 				.withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
 				.build();
 
-		BufferedReader buffer = Files.newBufferedReader(inputFile.toPath(), this.charset);
 		return new CSVReaderBuilder(buffer).withCSVParser(parser).build();
 	}
 
+	/**
+	 * Splits the file into byte ranges of roughly splitSize bytes that can be parsed independently. Every range ends
+	 * directly after a line break that is not inside a quoted value, so no record is cut in two, even if its values
+	 * contain line breaks. To know which line breaks are quoted, the file is scanned once byte by byte, which is much
+	 * cheaper than parsing it, but still reads the entire file. The scan follows the states of OpenCSV's parser: an
+	 * escape character escapes the next quote, escape or separator not only inside quotes but also inside an unquoted
+	 * value that has started, and a quote that is doubled inside a value stands for itself. Like OpenCSV, which reads
+	 * the file line by line, it never looks past the end of a line for the character after an escape or quote. The
+	 * separator, quote and escape characters need to be single bytes in the file's charset.
+	 *
+	 * @return the offsets of all ranges, i.e., range i spans the bytes from offsets[i] to offsets[i + 1]
+	 */
+	public long[] getSplitOffsets(File inputFile, long splitSize) throws IOException {
+		long length = inputFile.length();
+		if (length <= splitSize)
+			return new long[]{0, length};
+
+		List<Long> offsets = new ArrayList<>();
+		offsets.add(0L);
+		byte separator = (byte) this.valueSeparator;
+		byte quote = (byte) this.valueQuote;
+		byte escape = (byte) this.valueEscape;
+		boolean inQuotes = false;
+		boolean inField = false;
+		// The previous byte was an escape or a quote whose meaning depends on this byte
+		boolean afterEscape = false;
+		boolean afterQuote = false;
+		long nextSplit = splitSize;
+		long position = 0;
+		try (InputStream input = Files.newInputStream(inputFile.toPath())) {
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while ((read = input.read(buffer)) > 0) {
+				for (int i = 0; i < read; i++, position++) {
+					byte b = buffer[i];
+					if (afterEscape) {
+						afterEscape = false;
+						if (b == quote || b == escape || b == separator)
+							continue;
+					} else if (afterQuote) {
+						afterQuote = false;
+						inField = !inField;
+						// A doubled quote leaves the state as it is
+						if (b == quote)
+							continue;
+						inQuotes = !inQuotes;
+					}
+
+					if (b == escape) {
+						if (!this.valueStrictQuotes)
+							inField = true;
+						afterEscape = inQuotes || inField;
+					} else if (b == quote) {
+						if (inQuotes || inField) {
+							afterQuote = true;
+						} else {
+							inQuotes = true;
+							inField = true;
+						}
+					} else if (b == '\n' || b == '\r') {
+						if (!inQuotes) {
+							inField = false;
+							if (b == '\n' && position + 1 >= nextSplit && position + 1 < length) {
+								offsets.add(position + 1);
+								nextSplit = position + 1 + splitSize;
+							}
+						}
+					} else if (b == separator && !inQuotes) {
+						inField = false;
+					} else if (!this.valueStrictQuotes || inQuotes) {
+						inField = true;
+					}
+				}
+			}
+		}
+		offsets.add(length);
+		return offsets.stream().mapToLong(Long::longValue).toArray();
+	}
+
 	public String[] getHeader(File inputFile) throws IOException, CsvValidationException {
 		CSVReader reader = this.createCSVReader(inputFile);
 
@@ -67,4 +221,49 @@ public class InputConfiguration {
 				line[i] = "Attr_" + (i + 1);
 		return line;
 	}
+
+	/**
+	 * Reads at most a given number of bytes from the wrapped stream.
+	 */
+	private static class BoundedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		BoundedInputStream(InputStream input, long limit) {
+			super(input);
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.remaining <= 0)
+				return -1;
+			int b = super.read();
+			if (b >= 0)
+				this.remaining--;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (this.remaining <= 0)
+				return -1;
+			int read = super.read(buffer, offset, (int) Math.min(length, this.remaining));
+			if (read > 0)
+				this.remaining -= read;
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, this.remaining));
+			this.remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), this.remaining);
+		}
+	}
 }
@@ -0,0 +1,27 @@
+package de.ddm.configuration;
+
+import de.ddm.serialization.AkkaSerializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The settings of an InputConfiguration that describe how the input files are parsed, in a form that can be sent to
+ * the workers; they have no InputConfiguration of their own.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InputFormat implements AkkaSerializable {
+
+	private static final long serialVersionUID = 2951208743312716544L;
+
+	private boolean fileHasHeader;
+	private String charset;
+	private char valueSeparator;
+	private char valueQuote;
+	private char valueEscape;
+	private boolean valueStrictQuotes;
+	private boolean valueIgnoreLeadingWhitespace;
+	private CsvReaderType csvReaderType;
+}
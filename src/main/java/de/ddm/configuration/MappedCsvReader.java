@@ -0,0 +1,265 @@
+package de.ddm.configuration;
+
+import de.ddm.structures.MappedBuffers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A CSV tokenizer that memory-maps a byte range of the input file and finds separators, quotes and line breaks
+ * directly on the bytes. The bytes of a value are only decoded into a String if the value is new to its column;
+ * repeated values are looked up by their bytes and the String that was created for their first occurrence is
+ * returned again. The tokenizer follows the states of OpenCSV's parser, including its handling of escapes outside of
+ * quotes and of quotes in the middle of a value, so that both readers return the same records. The separator, quote
+ * and escape characters must be different single bytes in the file's charset, which holds for all ASCII characters in
+ * UTF-8 and the ISO-8859 charsets.
+ */
+public class MappedCsvReader implements RecordReader {
+
+	private MappedByteBuffer buffer;
+	private final int limit;
+	private int position = 0;
+
+	private final Charset charset;
+	private final byte separator;
+	private final byte quote;
+	private final byte escape;
+	private final boolean strictQuotes;
+	private final boolean ignoreLeadingWhitespace;
+
+	private final int internCapacity;
+	private final List<ValueInterner> interners = new ArrayList<>();
+
+	private final List<String> values = new ArrayList<>();
+	private byte[] scratch = new byte[256];
+	private int scratchLength;
+
+	/**
+	 * @param startOffset the byte offset of the first record to read; must be a record boundary
+	 * @param endOffset the byte offset after the last record to read; must be a record boundary
+	 * @param internCapacity the number of distinct values per column whose Strings are reused
+	 */
+	public MappedCsvReader(File inputFile, long startOffset, long endOffset, InputConfiguration configuration, int internCapacity) throws IOException {
+		if (configuration.getValueSeparator() == configuration.getValueQuote() || configuration.getValueSeparator() == configuration.getValueEscape()
+				|| configuration.getValueQuote() == configuration.getValueEscape())
+			throw new IOException("The separator, quote and escape characters must be different");
+		if (endOffset - startOffset > Integer.MAX_VALUE)
+			throw new IOException("Cannot map more than 2 GB of " + inputFile.getName() + " at once; use a smaller split size");
+
+		try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, startOffset, endOffset - startOffset);
+		}
+		this.limit = (int) (endOffset - startOffset);
+
+		this.charset = configuration.getCharset();
+		this.separator = (byte) configuration.getValueSeparator();
+		this.quote = (byte) configuration.getValueQuote();
+		this.escape = (byte) configuration.getValueEscape();
+		this.strictQuotes = configuration.isValueStrictQuotes();
+		this.ignoreLeadingWhitespace = configuration.isValueIgnoreLeadingWhitespace();
+		this.internCapacity = internCapacity;
+	}
+
+	@Override
+	public String[] readNext() throws IOException {
+		if (this.buffer == null)
+			throw new IOException("Reader is closed");
+		if (this.position >= this.limit)
+			return null;
+
+		// The states of OpenCSV's parser, which parses the file line by line
+		this.values.clear();
+		this.scratchLength = 0;
+		boolean inQuotes = false;
+		boolean inField = false;
+		boolean fromQuotedField = false;
+		int lineStart = this.position;
+		while (true) {
+			if (this.position >= this.limit) {
+				if (inQuotes)
+					throw new IOException("Unterminated quoted value at the end of the range");
+				break;
+			}
+			byte b = this.buffer.get(this.position);
+			if (b == '\n' || b == '\r') {
+				this.position += b == '\r' && this.position + 1 < this.limit && this.buffer.get(this.position + 1) == '\n' ? 2 : 1;
+				if (!inQuotes)
+					break;
+				// The lines of a quoted value are joined with a '\n', whatever their line break was
+				this.append((byte) '\n');
+				lineStart = this.position;
+				continue;
+			}
+
+			this.position++;
+			if (b == this.escape) {
+				if (!this.strictQuotes)
+					inField = true;
+				if ((inQuotes || inField) && this.isEscapable(this.position)) {
+					this.append(this.buffer.get(this.position));
+					this.position++;
+				}
+			} else if (b == this.quote) {
+				if ((inQuotes || inField) && this.isOnLine(this.position) && this.buffer.get(this.position) == this.quote) {
+					// A doubled quote stands for one quote
+					this.append(this.quote);
+					this.position++;
+				} else {
+					inQuotes = !inQuotes;
+					if (this.scratchLength == 0)
+						fromQuotedField = true;
+					// A quote in the middle of a value, such as the quotes of b"c"d, is kept, unless it is one of the first three bytes of the line
+					if (!this.strictQuotes && this.position - lineStart > 3 && this.buffer.get(this.position - 2) != this.separator
+							&& this.isOnLine(this.position) && this.buffer.get(this.position) != this.separator) {
+						if (this.ignoreLeadingWhitespace && this.scratchLength > 0 && this.isWhitespaceOnly())
+							this.scratchLength = 0;
+						else
+							this.append(this.quote);
+					}
+				}
+				inField = !inField;
+			} else if (b == this.separator && !inQuotes) {
+				this.values.add(this.createValue(this.values.size(), fromQuotedField));
+				this.scratchLength = 0;
+				fromQuotedField = false;
+				inField = false;
+			} else if (!this.strictQuotes || inQuotes) {
+				// In strict quote mode, everything outside of the quotes is ignored
+				this.append(b);
+				inField = true;
+				fromQuotedField = true;
+			}
+		}
+		this.values.add(this.createValue(this.values.size(), fromQuotedField));
+		return this.values.toArray(new String[0]);
+	}
+
+	/**
+	 * @return True if the byte at the index belongs to the current line, i.e., it is neither a line break nor after the range
+	 */
+	private boolean isOnLine(int index) {
+		if (index >= this.limit)
+			return false;
+		byte b = this.buffer.get(index);
+		return b != '\n' && b != '\r';
+	}
+
+	/**
+	 * @return True if an escape before the index escapes the byte at the index
+	 */
+	private boolean isEscapable(int index) {
+		if (!this.isOnLine(index))
+			return false;
+		byte next = this.buffer.get(index);
+		return next == this.quote || next == this.escape || next == this.separator;
+	}
+
+	/**
+	 * @return True if the value so far consists of whitespace only; multi-byte characters never count as whitespace
+	 */
+	private boolean isWhitespaceOnly() {
+		for (int i = 0; i < this.scratchLength; i++)
+			if (this.scratch[i] < 0 || !Character.isWhitespace((char) this.scratch[i]))
+				return false;
+		return true;
+	}
+
+	private void append(byte b) {
+		if (this.scratchLength == this.scratch.length)
+			this.scratch = Arrays.copyOf(this.scratch, 2 * this.scratch.length);
+		this.scratch[this.scratchLength++] = b;
+	}
+
+	private String createValue(int column, boolean fromQuotedField) {
+		// Like OpenCSV with EMPTY_SEPARATORS, an empty value is null unless it was quoted
+		if (this.scratchLength == 0 && !fromQuotedField)
+			return null;
+		while (this.interners.size() <= column)
+			this.interners.add(new ValueInterner(this.internCapacity));
+		return this.interners.get(column).intern(this.scratch, this.scratchLength, this.charset);
+	}
+
+	@Override
+	public void close() {
+		MappedBuffers.unmap(this.buffer);
+		this.buffer = null;
+		this.interners.clear();
+	}
+
+	/**
+	 * An open-addressing hash table from the bytes of a value to the String that was decoded from them. Once it holds
+	 * capacity values, new values are still decoded but no longer added.
+	 */
+	private static class ValueInterner {
+
+		private final int capacity;
+		private byte[][] keys = new byte[64][];
+		private String[] strings = new String[64];
+		private int[] hashes = new int[64];
+		private int size = 0;
+
+		ValueInterner(int capacity) {
+			this.capacity = capacity;
+		}
+
+		String intern(byte[] bytes, int length, Charset charset) {
+			int hash = 1;
+			for (int i = 0; i < length; i++)
+				hash = 31 * hash + bytes[i];
+
+			int mask = this.keys.length - 1;
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while (this.keys[slot] != null) {
+				if (this.hashes[slot] == hash && equals(this.keys[slot], bytes, length))
+					return this.strings[slot];
+				slot = (slot + 1) & mask;
+			}
+
+			String value = new String(bytes, 0, length, charset);
+			if (this.size < this.capacity) {
+				this.keys[slot] = Arrays.copyOf(bytes, length);
+				this.strings[slot] = value;
+				this.hashes[slot] = hash;
+				if (++this.size > this.keys.length / 2)
+					this.grow();
+			}
+			return value;
+		}
+
+		private static boolean equals(byte[] key, byte[] bytes, int length) {
+			if (key.length != length)
+				return false;
+			for (int i = 0; i < length; i++)
+				if (key[i] != bytes[i])
+					return false;
+			return true;
+		}
+
+		private void grow() {
+			byte[][] oldKeys = this.keys;
+			String[] oldStrings = this.strings;
+			int[] oldHashes = this.hashes;
+			this.keys = new byte[2 * oldKeys.length][];
+			this.strings = new String[2 * oldKeys.length];
+			this.hashes = new int[2 * oldKeys.length];
+			int mask = this.keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] == null)
+					continue;
+				int slot = (oldHashes[i] ^ (oldHashes[i] >>> 16)) & mask;
+				while (this.keys[slot] != null)
+					slot = (slot + 1) & mask;
+				this.keys[slot] = oldKeys[i];
+				this.strings[slot] = oldStrings[i];
+				this.hashes[slot] = oldHashes[i];
+			}
+		}
+	}
+}
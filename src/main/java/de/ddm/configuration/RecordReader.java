@@ -0,0 +1,15 @@
+package de.ddm.configuration;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the records of (a byte range of) an input file one after the other.
+ */
+public interface RecordReader extends Closeable {
+
+	/**
+	 * @return the values of the next record, where empty unquoted values are null, or null if there are no more records
+	 */
+	String[] readNext() throws IOException;
+}
@@ -2,6 +2,8 @@ package de.ddm.configuration;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import de.ddm.actors.profiling.DiscoveryMode;
+import de.ddm.actors.profiling.ValidationStrategy;
 import lombok.Data;
 
 import java.net.InetAddress;
@@ -32,6 +34,24 @@ public class SystemConfiguration {
 
 	private boolean hardMode = false;					// Solve the hard version of the task
 
+	private DiscoveryMode discoveryMode = DiscoveryMode.PAIRWISE;			// How the IND candidates are distributed over the workers
+
+	private int numBuckets = 0;							// The number of value buckets in BINDER mode; 0 means two buckets per registered worker
+
+	private int expectedWorkers = 0;					// The number of workers that DISTRIBUTED mode waits for before the workers read the input; 0 means the local workers of the master
+
+	private int joinDeadline = 10;						// The seconds after the start after which DISTRIBUTED mode reads the input with the workers that have registered so far
+
+	private ValidationStrategy validationStrategy = ValidationStrategy.MERGE;	// The kernel that checks the value containment of IND candidates
+
+	private boolean incremental = false;				// Continue from the profiling state of the previous run and only read what was appended to the input files since
+
+	private boolean columnStore = false;				// Load the columns of unchanged input files from the column store instead of parsing them, and store the columns of all other files
+
+	private int spillMemoryBudget = 0;					// The memory in MB for the values of all columns on the master, beyond which they are spilled to disk; 0 keeps all values in memory
+
+	private int batchesInFlight = 3;					// The number of batches that every input reader may send ahead of the Miner
+
 	private static String getDefaultHost() {
 		try {
 			return InetAddress.getLocalHost().getHostAddress();
@@ -49,6 +69,15 @@ public class SystemConfiguration {
 		this.numWorkers = commandMaster.numWorkers;
 		this.startPaused = commandMaster.startPaused;
 		this.hardMode = commandMaster.hardMode;
+		this.discoveryMode = commandMaster.discoveryMode;
+		this.numBuckets = commandMaster.numBuckets;
+		this.expectedWorkers = commandMaster.expectedWorkers;
+		this.joinDeadline = commandMaster.joinDeadline;
+		this.validationStrategy = commandMaster.validationStrategy;
+		this.incremental = commandMaster.incremental;
+		this.columnStore = commandMaster.columnStore;
+		this.spillMemoryBudget = commandMaster.spillMemoryBudget;
+		this.batchesInFlight = commandMaster.batchesInFlight;
 	}
 
 	public void update(CommandWorker commandWorker) {
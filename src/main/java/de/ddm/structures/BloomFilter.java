@@ -0,0 +1,66 @@
+package de.ddm.structures;
+
+import de.ddm.serialization.AkkaSerializable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A membership sketch over the value ids of a column. Two filters of the same size can be compared bit by bit:
+ * if a value set A is contained in a value set B, every bit of A's filter is also set in B's filter, so a single
+ * bit of A that is missing in B proves that A is not contained in B.
+ */
+@Getter
+@NoArgsConstructor
+public class BloomFilter implements AkkaSerializable {
+
+	private static final long serialVersionUID = 4032389575201845517L;
+
+	private long[] bits;
+	private int numHashFunctions;
+
+	/**
+	 * @param sizeInBits the number of bits of the filter; it is rounded up to a multiple of 64
+	 * @param numHashFunctions the number of bits that are set for every value
+	 */
+	public BloomFilter(int sizeInBits, int numHashFunctions) {
+		this.bits = new long[Math.max(1, (sizeInBits + 63) / 64)];
+		this.numHashFunctions = numHashFunctions;
+	}
+
+	public void add(int value) {
+		long hash = mix(value);
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+		long numBits = 64L * this.bits.length;
+		for (int i = 0; i < this.numHashFunctions; i++) {
+			int bit = (int) Math.floorMod(hash1 + (long) i * hash2, numBits);
+			this.bits[bit >>> 6] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * @param other a filter of the same size and number of hash functions
+	 * @return False if the values of this filter can certainly not all be contained in the values of the other filter
+	 */
+	public boolean mightBeContainedIn(BloomFilter other) {
+		for (int i = 0; i < this.bits.length; i++)
+			if ((this.bits[i] & ~other.bits[i]) != 0)
+				return false;
+		return true;
+	}
+
+	public long sizeInBytes() {
+		return 8L * this.bits.length;
+	}
+
+	private static long mix(int value) {
+		// The finalizer of MurmurHash3, which spreads the dense value ids over all 64 bits
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
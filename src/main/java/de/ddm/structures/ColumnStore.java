@@ -0,0 +1,170 @@
+package de.ddm.structures;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the distinct values of every column of the input files on disk, so that a later run can load them instead of
+ * parsing the files again. Every version of an input file gets its own directory, named by the file's name and a
+ * fingerprint of its length, modification time and content, with one segment per column. A segment holds the sorted
+ * distinct values of its column, front coded (every value only stores the bytes that differ from its predecessor) and
+ * deflated.
+ */
+public class ColumnStore {
+
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	private final File directory;
+
+	public ColumnStore(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @return the directory with the stored columns of the current version of the input file, or null if it was not stored
+	 */
+	public File locate(File inputFile) throws IOException {
+		File version = new File(this.directory, this.versionName(inputFile));
+		return version.isDirectory() ? version : null;
+	}
+
+	/**
+	 * Stores the values of all columns of the input file and removes the columns of its older versions.
+	 *
+	 * @param columnValues the distinct values of every column; the arrays are sorted in place
+	 */
+	public void write(File inputFile, String[][] columnValues) throws IOException {
+		String versionName = this.versionName(inputFile);
+		File temporary = new File(this.directory, versionName + ".tmp");
+		Files.createDirectories(temporary.toPath());
+		for (int column = 0; column < columnValues.length; column++)
+			writeSegment(new File(temporary, column + SEGMENT_SUFFIX), columnValues[column]);
+
+		// Stale versions would never be read again, so they go before the new version appears
+		String versionPattern = Pattern.quote(inputFile.getName()) + "\\.[0-9a-f]+-[0-9a-f]+-[0-9a-f]+";
+		File[] versions = this.directory.listFiles((dir, name) -> name.matches(versionPattern));
+		if (versions != null)
+			for (File version : versions)
+				delete(version);
+		Files.move(temporary.toPath(), new File(this.directory, versionName).toPath());
+	}
+
+	/**
+	 * @return a reader for the stored values of one column of a version that locate returned
+	 */
+	public SegmentReader openSegment(File version, int column) throws IOException {
+		return new SegmentReader(new File(version, column + SEGMENT_SUFFIX));
+	}
+
+	private String versionName(File inputFile) throws IOException {
+		long length = inputFile.length();
+		long fingerprint = ProfilingState.fingerprint(inputFile, length);
+		return inputFile.getName() + "." + Long.toHexString(length) + "-" + Long.toHexString(inputFile.lastModified()) + "-" + Long.toHexString(fingerprint);
+	}
+
+	private static void writeSegment(File segment, String[] values) throws IOException {
+		Arrays.sort(values, Comparator.nullsFirst(Comparator.naturalOrder()));
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(Files.newOutputStream(segment.toPath()))))) {
+			boolean hasNull = values.length > 0 && values[0] == null;
+			output.writeBoolean(hasNull);
+			output.writeInt(hasNull ? values.length - 1 : values.length);
+			byte[] previous = new byte[0];
+			for (int i = hasNull ? 1 : 0; i < values.length; i++) {
+				byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+				int prefix = 0;
+				int maxPrefix = Math.min(previous.length, bytes.length);
+				while (prefix < maxPrefix && previous[prefix] == bytes[prefix])
+					prefix++;
+				writeVarInt(output, prefix);
+				writeVarInt(output, bytes.length - prefix);
+				output.write(bytes, prefix, bytes.length - prefix);
+				previous = bytes;
+			}
+		}
+	}
+
+	private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			output.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte(value);
+	}
+
+	private static void delete(File file) throws IOException {
+		File[] children = file.listFiles();
+		if (children != null)
+			for (File child : children)
+				delete(child);
+		Files.deleteIfExists(file.toPath());
+	}
+
+	/**
+	 * Reads the values of one stored column in chunks.
+	 */
+	public static class SegmentReader implements Closeable {
+
+		private final DataInputStream input;
+		private boolean hasNull;
+		private int remaining;
+		private byte[] previous = new byte[0];
+
+		private SegmentReader(File segment) throws IOException {
+			this.input = new DataInputStream(new BufferedInputStream(new InflaterInputStream(Files.newInputStream(segment.toPath()))));
+			this.hasNull = this.input.readBoolean();
+			this.remaining = this.input.readInt();
+		}
+
+		/**
+		 * @return the next at most maxValues values of the column, or an empty array if all values were read
+		 */
+		public String[] read(int maxValues) throws IOException {
+			List<String> values = new ArrayList<>(Math.min(maxValues, this.remaining + 1));
+			if (this.hasNull && maxValues > 0) {
+				values.add(null);
+				this.hasNull = false;
+			}
+			while (values.size() < maxValues && this.remaining > 0) {
+				int prefix = readVarInt(this.input);
+				int suffix = readVarInt(this.input);
+				byte[] bytes = Arrays.copyOf(this.previous, prefix + suffix);
+				this.input.readFully(bytes, prefix, suffix);
+				values.add(new String(bytes, StandardCharsets.UTF_8));
+				this.previous = bytes;
+				this.remaining--;
+			}
+			return values.toArray(new String[0]);
+		}
+
+		private static int readVarInt(DataInputStream input) throws IOException {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = input.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.input.close();
+		}
+	}
+}
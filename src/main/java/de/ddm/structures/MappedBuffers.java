@@ -0,0 +1,44 @@
+package de.ddm.structures;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Releases the memory of direct and memory-mapped buffers right away instead of waiting for the garbage collector,
+ * which may not collect a small buffer object for a long time and would keep large mappings and deleted files alive.
+ */
+public class MappedBuffers {
+
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// Without the cleaner, the buffers are released when they are garbage collected
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	/**
+	 * Releases the buffer, which must not be used afterwards; buffers on the heap and views of other buffers are left alone
+	 */
+	public static void unmap(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect() || INVOKE_CLEANER == null)
+			return;
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// A view of another buffer has no cleaner of its own; its memory is released with the other buffer
+		}
+	}
+}
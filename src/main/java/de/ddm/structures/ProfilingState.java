@@ -0,0 +1,151 @@
+package de.ddm.structures;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The result of a profiling run that the next run can continue from: the distinct values of every column of every
+ * input file, together with the length up to which the file was read, and all valid INDs. As long as the next run
+ * finds the same file with only some data appended, it only needs to read the appended part.
+ */
+@Getter
+@NoArgsConstructor
+public class ProfilingState {
+
+	private static final int VERSION = 1;
+	private static final int FINGERPRINT_BLOCK_SIZE = 64 * 1024;
+
+	// The state of every input file by its name
+	private final Map<String, FileState> files = new HashMap<>();
+	// The valid unary INDs as pairs of dependent and referenced column name
+	private final List<String[]> inds = new ArrayList<>();
+
+	@Getter
+	@AllArgsConstructor
+	public static class FileState {
+		private long length;
+		private long fingerprint;
+		private String[] header;
+		// The distinct values of every column; null stands for empty values
+		private String[][] columnValues;
+	}
+
+	/**
+	 * @return a hash of the first and the last bytes of the file's first length bytes, which changes if these bytes were overwritten
+	 * rather than appended to; a change in the middle of a large file goes unnoticed
+	 */
+	public static long fingerprint(File file, long length) throws IOException {
+		long hash = 0xcbf29ce484222325L ^ length;
+		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+			byte[] block = new byte[(int) Math.min(length, FINGERPRINT_BLOCK_SIZE)];
+			input.readFully(block);
+			for (byte b : block)
+				hash = (hash ^ b) * 0x100000001b3L;
+			input.seek(length - block.length);
+			input.readFully(block);
+			for (byte b : block)
+				hash = (hash ^ b) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return True if the first length bytes of the file end with a line break, so that appended rows start a new record
+	 */
+	public static boolean endsWithLineBreak(File file, long length) throws IOException {
+		if (length == 0)
+			return true;
+		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+			input.seek(length - 1);
+			return input.read() == '\n';
+		}
+	}
+
+	public static ProfilingState read(File stateFile) throws IOException {
+		ProfilingState state = new ProfilingState();
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(stateFile.toPath()))))) {
+			if (input.readInt() != VERSION)
+				throw new IOException("Unsupported version of profiling state " + stateFile);
+			int numFiles = input.readInt();
+			for (int file = 0; file < numFiles; file++) {
+				String name = readString(input);
+				long length = input.readLong();
+				long fingerprint = input.readLong();
+				String[] header = new String[input.readInt()];
+				String[][] columnValues = new String[header.length][];
+				for (int column = 0; column < header.length; column++) {
+					header[column] = readString(input);
+					columnValues[column] = new String[input.readInt()];
+					for (int value = 0; value < columnValues[column].length; value++)
+						columnValues[column][value] = readString(input);
+				}
+				state.files.put(name, new FileState(length, fingerprint, header, columnValues));
+			}
+			int numInds = input.readInt();
+			for (int ind = 0; ind < numInds; ind++)
+				state.inds.add(new String[]{readString(input), readString(input)});
+		}
+		return state;
+	}
+
+	public void write(File stateFile) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(stateFile.toPath()))))) {
+			output.writeInt(VERSION);
+			output.writeInt(this.files.size());
+			for (Map.Entry<String, FileState> entry : this.files.entrySet()) {
+				FileState file = entry.getValue();
+				writeString(output, entry.getKey());
+				output.writeLong(file.getLength());
+				output.writeLong(file.getFingerprint());
+				output.writeInt(file.getHeader().length);
+				for (int column = 0; column < file.getHeader().length; column++) {
+					writeString(output, file.getHeader()[column]);
+					output.writeInt(file.getColumnValues()[column].length);
+					for (String value : file.getColumnValues()[column])
+						writeString(output, value);
+				}
+			}
+			output.writeInt(this.inds.size());
+			for (String[] ind : this.inds) {
+				writeString(output, ind[0]);
+				writeString(output, ind[1]);
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
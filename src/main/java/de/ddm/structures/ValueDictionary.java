@@ -0,0 +1,151 @@
+package de.ddm.structures;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps every distinct value that occurs in the input to a dense integer id, so that columns only need to store
+ * primitive ids instead of boxed Strings. The same value always receives the same id, regardless of the column
+ * or file it was read from.
+ * <p>
+ * The values themselves live outside of the heap: every value is a run of its UTF-8 bytes, prefixed by their length
+ * (-1 for null), in direct buffer pages. The heap only holds the offset and hash of every id and an open addressing
+ * table of ids, so the garbage collector sees a few primitive arrays instead of one String per value. A String is only
+ * created when a value is decoded. The pages stay allocated until the dictionary is closed.
+ */
+public class ValueDictionary implements Closeable {
+
+	private static final int FIRST_PAGE_SIZE = 1 << 20;
+	private static final int MAX_PAGE_SIZE = 1 << 26;
+	private static final int EMPTY = -1;
+
+	private final List<ByteBuffer> pages = new ArrayList<>();
+	private ByteBuffer page;
+	// The page index in the upper and the position of the length prefix in the lower half of every id's offset
+	private long[] offsets = new long[1024];
+	private int[] hashes = new int[1024];
+	private int[] table = new int[2048];
+	private int size;
+
+	public ValueDictionary() {
+		Arrays.fill(this.table, EMPTY);
+	}
+
+	/**
+	 * @param value the value to encode; may be null for empty fields
+	 * @return the id of the value; a new id is assigned if the value has not been seen before
+	 */
+	public int encode(String value) {
+		byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+		int hash = value == null ? 0 : mix(value.hashCode());
+		int mask = this.table.length - 1;
+		int slot = hash & mask;
+		int id;
+		while ((id = this.table[slot]) != EMPTY) {
+			if (this.hashes[id] == hash && this.matches(id, bytes))
+				return id;
+			slot = (slot + 1) & mask;
+		}
+
+		id = this.size++;
+		if (id == this.offsets.length) {
+			this.offsets = Arrays.copyOf(this.offsets, id * 2);
+			this.hashes = Arrays.copyOf(this.hashes, id * 2);
+		}
+		this.offsets[id] = this.append(bytes);
+		this.hashes[id] = hash;
+		this.table[slot] = id;
+		// A load factor of at most one half keeps the probe sequences short
+		if (this.size * 2 > this.table.length)
+			this.rehash();
+		return id;
+	}
+
+	public String decode(int id) {
+		if (id < 0 || id >= this.size)
+			throw new IndexOutOfBoundsException("Unknown value id " + id);
+		ByteBuffer page = this.pages.get((int) (this.offsets[id] >>> 32));
+		int position = (int) this.offsets[id];
+		int length = page.getInt(position);
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++)
+			bytes[i] = page.get(position + Integer.BYTES + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Releases the pages right away; the dictionary must not be used afterwards
+	 */
+	@Override
+	public void close() {
+		for (ByteBuffer page : this.pages)
+			MappedBuffers.unmap(page);
+		this.pages.clear();
+		this.page = null;
+		this.offsets = null;
+		this.hashes = null;
+		this.table = null;
+	}
+
+	private boolean matches(int id, byte[] bytes) {
+		ByteBuffer page = this.pages.get((int) (this.offsets[id] >>> 32));
+		int position = (int) this.offsets[id];
+		int length = page.getInt(position);
+		if (bytes == null || length < 0)
+			return bytes == null && length < 0;
+		if (length != bytes.length)
+			return false;
+		position += Integer.BYTES;
+		for (int i = 0; i < length; i++)
+			if (page.get(position + i) != bytes[i])
+				return false;
+		return true;
+	}
+
+	private long append(byte[] bytes) {
+		int recordSize = Integer.BYTES + (bytes == null ? 0 : bytes.length);
+		// A value never spans two pages; the pages grow up to their maximum size, and a larger value gets a page of its own
+		if (this.page == null || this.page.remaining() < recordSize) {
+			int pageSize = this.page == null ? FIRST_PAGE_SIZE : Math.min(MAX_PAGE_SIZE, this.page.capacity() * 2);
+			this.page = ByteBuffer.allocateDirect(Math.max(pageSize, recordSize));
+			this.pages.add(this.page);
+		}
+		long offset = ((long) (this.pages.size() - 1) << 32) | this.page.position();
+		this.page.putInt(bytes == null ? -1 : bytes.length);
+		if (bytes != null)
+			this.page.put(bytes);
+		return offset;
+	}
+
+	private void rehash() {
+		int[] table = new int[this.table.length * 2];
+		Arrays.fill(table, EMPTY);
+		int mask = table.length - 1;
+		for (int id = 0; id < this.size; id++) {
+			int slot = this.hashes[id] & mask;
+			while (table[slot] != EMPTY)
+				slot = (slot + 1) & mask;
+			table[slot] = id;
+		}
+		this.table = table;
+	}
+
+	private static int mix(int hash) {
+		// The same finalizer as MurmurHash3, so that similar Strings do not end up in neighbouring slots
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		return hash ^ (hash >>> 16);
+	}
+}
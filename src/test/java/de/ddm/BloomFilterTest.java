@@ -0,0 +1,51 @@
+package de.ddm;
+
+import de.ddm.structures.BloomFilter;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+	@Test
+	public void testSubsetsAreNeverRefuted() {
+		Random random = new Random(42);
+		// From filters that are almost empty to filters that are almost full, with overlapping values of both signs
+		for (int sizeInBits : new int[]{1, 64, 1000, 1 << 16}) {
+			for (int numHashFunctions : new int[]{1, 2, 5}) {
+				for (int round = 0; round < 100; round++) {
+					BloomFilter superset = new BloomFilter(sizeInBits, numHashFunctions);
+					BloomFilter subset = new BloomFilter(sizeInBits, numHashFunctions);
+					int start = random.nextInt(2000) - 1000;
+					int numValues = random.nextInt(500);
+					for (int value = start; value < start + numValues; value++) {
+						superset.add(value);
+						if (random.nextBoolean())
+							subset.add(value);
+					}
+					assertTrue(subset.mightBeContainedIn(superset));
+					assertTrue(subset.mightBeContainedIn(subset));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDisjointValuesAreRefuted() {
+		// The ids of consecutive values must not map to the same bits, so that a sparse filter tells neighbouring ids apart
+		for (int start = 0; start < 1000; start += 10) {
+			BloomFilter dependent = new BloomFilter(1 << 16, 2);
+			BloomFilter referenced = new BloomFilter(1 << 16, 2);
+			for (int value = start; value < start + 10; value++) {
+				dependent.add(value);
+				referenced.add(value + 10);
+			}
+			assertFalse(dependent.mightBeContainedIn(referenced));
+			assertFalse(referenced.mightBeContainedIn(dependent));
+			assertTrue(new BloomFilter(1 << 16, 2).mightBeContainedIn(referenced));
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package de.ddm;
+
+import de.ddm.structures.ColumnStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnStoreTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		// Values with shared prefixes, a prefix of a longer value, multi-byte characters, a value longer than one byte of length, and null
+		String[] values = new String[1000];
+		for (int value = 0; value < values.length; value++)
+			values[value] = "value " + value;
+		String[][] columnValues = {
+				{"abd", null, "", "ab", "abc", "Grüße", "Gruß", new String(new char[300]).replace('\0', 'x'), "b"},
+				values,
+				{},
+				{null}};
+
+		ColumnStore store = new ColumnStore(this.folder.newFolder("store"));
+		File inputFile = this.writeInput("t1.csv", "A;B;C;D\n");
+		assertNull(store.locate(inputFile));
+		store.write(inputFile, copy(columnValues));
+
+		File version = store.locate(inputFile);
+		assertNotNull(version);
+		for (int column = 0; column < columnValues.length; column++) {
+			String[] expected = columnValues[column].clone();
+			Arrays.sort(expected, Comparator.nullsFirst(Comparator.naturalOrder()));
+			for (int chunkSize : new int[]{1, 3, 2000})
+				assertEquals(Arrays.asList(expected), readColumn(store, version, column, chunkSize));
+		}
+	}
+
+	@Test
+	public void testNewVersions() throws IOException {
+		ColumnStore store = new ColumnStore(this.folder.newFolder("store"));
+		File inputFile = this.writeInput("t1.csv", "A\n1\n");
+		File otherFile = this.writeInput("t1.csv.csv", "A\n1\n");
+		store.write(inputFile, new String[][]{{"1"}});
+		store.write(otherFile, new String[][]{{"1"}});
+		File oldVersion = store.locate(inputFile);
+
+		// Appending to the file makes it a new version, whose columns replace the ones of the old version, but not those of other files
+		Files.write(inputFile.toPath(), "2\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertNull(store.locate(inputFile));
+		store.write(inputFile, new String[][]{{"1", "2"}});
+		assertNotNull(store.locate(inputFile));
+		assertEquals(Arrays.asList("1", "2"), readColumn(store, store.locate(inputFile), 0, 10));
+		assertFalse(oldVersion.exists());
+		assertNotNull(store.locate(otherFile));
+	}
+
+	private File writeInput(String fileName, String content) throws IOException {
+		File file = new File(this.folder.getRoot(), fileName);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static List<String> readColumn(ColumnStore store, File version, int column, int chunkSize) throws IOException {
+		List<String> values = new ArrayList<>();
+		try (ColumnStore.SegmentReader reader = store.openSegment(version, column)) {
+			String[] chunk;
+			while ((chunk = reader.read(chunkSize)).length > 0) {
+				assertTrue(chunk.length <= chunkSize);
+				values.addAll(Arrays.asList(chunk));
+			}
+		}
+		return values;
+	}
+
+	private static String[][] copy(String[][] columnValues) {
+		String[][] copy = new String[columnValues.length][];
+		for (int column = 0; column < columnValues.length; column++)
+			copy[column] = columnValues[column].clone();
+		return copy;
+	}
+}
@@ -0,0 +1,218 @@
+package de.ddm;
+
+import akka.actor.typed.ActorSystem;
+import de.ddm.actors.Guardian;
+import de.ddm.actors.profiling.DiscoveryMode;
+import de.ddm.configuration.DomainConfiguration;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.configuration.SystemConfiguration;
+import de.ddm.singletons.DomainConfigurationSingleton;
+import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.singletons.SystemConfigurationSingleton;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the whole discovery on small input files, just like Main does, and checks the INDs that it writes.
+ */
+public class DependencyMinerTest {
+
+	// Not the default port, so that the runs do not collide with other actor systems on this machine
+	private static final int PORT = 7891;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private SystemConfiguration systemConfiguration;
+	private InputConfiguration inputConfiguration;
+	private DomainConfiguration domainConfiguration;
+
+	private File inputDirectory;
+	private File resultFile;
+
+	@Before
+	public void configure() throws IOException {
+		this.systemConfiguration = SystemConfigurationSingleton.get();
+		this.inputConfiguration = InputConfigurationSingleton.get();
+		this.domainConfiguration = DomainConfigurationSingleton.get();
+
+		this.inputDirectory = this.folder.newFolder("input");
+		this.resultFile = new File(this.folder.getRoot(), "results.txt");
+
+		SystemConfiguration system = new SystemConfiguration();
+		system.setPort(PORT);
+		system.setMasterPort(PORT);
+		system.setNumWorkers(2);
+		SystemConfigurationSingleton.set(system);
+
+		InputConfiguration input = new InputConfiguration();
+		input.setInputPath(this.inputDirectory.getPath());
+		InputConfigurationSingleton.set(input);
+
+		// The runs write their files into the temporary folder instead of the working directory
+		String resultFileName = this.resultFile.getPath();
+		String profilingStateFileName = new File(this.folder.getRoot(), "profiling.state").getPath();
+		String columnStoreDirectoryName = new File(this.folder.getRoot(), "columnstore").getPath();
+		DomainConfigurationSingleton.set(new DomainConfiguration() {
+			@Override
+			public String getResultCollectorOutputFileName() {
+				return resultFileName;
+			}
+
+			@Override
+			public String getProfilingStateFileName() {
+				return profilingStateFileName;
+			}
+
+			@Override
+			public String getColumnStoreDirectoryName() {
+				return columnStoreDirectoryName;
+			}
+		});
+	}
+
+	@After
+	public void restoreConfiguration() {
+		SystemConfigurationSingleton.set(this.systemConfiguration);
+		InputConfigurationSingleton.set(this.inputConfiguration);
+		DomainConfigurationSingleton.set(this.domainConfiguration);
+	}
+
+	@Test
+	public void testNaryDependencies() throws Exception {
+		// [A, B] is in [C, D], but not in [E, F], although each of A and B is in E and F
+		this.writeInput("t1.csv", "A;B", "1;x", "2;y");
+		this.writeInput("t2.csv", "C;D", "1;x", "2;y", "3;x");
+		this.writeInput("t3.csv", "E;F", "1;y", "2;x");
+		SystemConfigurationSingleton.get().setHardMode(true);
+
+		assertEquals(Arrays.asList(
+				"t1 -> t2: [A, B] c [C, D]",
+				"t1 -> t2: [A] c [C]",
+				"t1 -> t2: [B] c [D]",
+				"t1 -> t3: [A] c [E]",
+				"t1 -> t3: [B] c [F]",
+				"t2 -> t1: [D] c [B]",
+				"t2 -> t3: [D] c [F]",
+				"t3 -> t1: [E] c [A]",
+				"t3 -> t1: [F] c [B]",
+				"t3 -> t2: [E] c [C]",
+				"t3 -> t2: [F] c [D]"), this.run());
+	}
+
+	@Test
+	public void testDiscoveryModes() throws Exception {
+		this.writeInput("t1.csv", "A;B;C", "1;x;", "2;y;1.5", "3;x;2");
+		this.writeInput("t2.csv", "D;E", "1;x", "2;y", "3;z", "4;");
+		this.writeInput("t3.csv", "F", "2", "1.5", "x");
+
+		// Every mode must find the INDs that PAIRWISE finds, no matter how many buckets the values are spread over
+		List<String> inds = this.run();
+		assertTrue(inds.contains("t1 -> t2: [A] c [D]"));
+		assertTrue(inds.contains("t1 -> t2: [B] c [E]"));
+		for (DiscoveryMode discoveryMode : new DiscoveryMode[]{DiscoveryMode.SPIDER, DiscoveryMode.BINDER, DiscoveryMode.DISTRIBUTED}) {
+			SystemConfigurationSingleton.get().setDiscoveryMode(discoveryMode);
+			assertEquals(discoveryMode.name(), inds, this.run());
+		}
+		SystemConfigurationSingleton.get().setDiscoveryMode(DiscoveryMode.BINDER);
+		SystemConfigurationSingleton.get().setNumBuckets(7);
+		assertEquals(inds, this.run());
+	}
+
+	@Test
+	public void testIncrementalRun() throws Exception {
+		this.writeInput("t1.csv", "A;B", "1;x", "2;y");
+		this.writeInput("t2.csv", "C;D", "1;x", "2;y", "3;z");
+		this.writeInput("t3.csv", "E;F", "1;x");
+		SystemConfigurationSingleton.get().setIncremental(true);
+		List<String> previousInds = this.run();
+
+		// The appended rows keep [A] c [C] valid, make [B] c [D] invalid and [C] c [A] valid; t3 stays as it is
+		this.appendInput("t1.csv", "3;w", "4;v");
+		this.appendInput("t2.csv", "4;w");
+		List<String> incrementalInds = this.run();
+
+		SystemConfigurationSingleton.get().setIncremental(false);
+		List<String> inds = this.run();
+		assertEquals(inds, incrementalInds);
+		assertTrue(inds.contains("t1 -> t2: [A] c [C]"));
+		assertTrue(inds.contains("t2 -> t1: [C] c [A]"));
+		assertFalse(inds.contains("t1 -> t2: [B] c [D]"));
+		assertTrue(previousInds.contains("t1 -> t2: [B] c [D]"));
+	}
+
+	@Test
+	public void testColumnStore() throws Exception {
+		this.writeInput("t1.csv", "A;B", "1;x", "2;", "3;\"a;b\"");
+		this.writeInput("t2.csv", "C;D", "1;x", "2;y", "3;\"a;b\"");
+		SystemConfigurationSingleton.get().setColumnStore(true);
+
+		// The first run parses the files and stores their columns, the second run loads them from the column store
+		List<String> inds = this.run();
+		assertEquals(2, new File(this.folder.getRoot(), "columnstore").list().length);
+		assertEquals(inds, this.run());
+		SystemConfigurationSingleton.get().setColumnStore(false);
+		assertEquals(inds, this.run());
+	}
+
+	@Test
+	public void testSpilling() throws Exception {
+		// Enough distinct values to exceed a budget of one MB while the files are read
+		List<String> rows = new ArrayList<>(Collections.singletonList("A;B"));
+		for (int row = 0; row < 20000; row++)
+			rows.add(row + ";v" + row % 100);
+		this.writeInput("t1.csv", rows.toArray(new String[0]));
+		rows = new ArrayList<>(Collections.singletonList("C;D"));
+		for (int row = 0; row < 10000; row++)
+			rows.add(2 * row + ";v" + row % 50);
+		this.writeInput("t2.csv", rows.toArray(new String[0]));
+
+		List<String> inds = this.run();
+		assertTrue(inds.contains("t2 -> t1: [C] c [A]"));
+		assertTrue(inds.contains("t2 -> t1: [D] c [B]"));
+		SystemConfigurationSingleton.get().setSpillMemoryBudget(1);
+		assertEquals(inds, this.run());
+	}
+
+	private void writeInput(String fileName, String... lines) throws IOException {
+		Files.write(new File(this.inputDirectory, fileName).toPath(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void appendInput(String fileName, String... lines) throws IOException {
+		Files.write(new File(this.inputDirectory, fileName).toPath(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * @return the sorted INDs that one run of the master with its local workers found
+	 */
+	private List<String> run() throws Exception {
+		SystemConfiguration configuration = SystemConfigurationSingleton.get();
+		ActorSystem<Guardian.Message> guardian = ActorSystem.create(Guardian.create(), configuration.getActorSystemName(), configuration.toAkkaConfig());
+		try {
+			guardian.tell(new Guardian.StartMessage());
+			guardian.getWhenTerminated().toCompletableFuture().get(60, TimeUnit.SECONDS);
+		} finally {
+			guardian.terminate();
+		}
+		return Files.readAllLines(this.resultFile.toPath()).stream().sorted().collect(Collectors.toList());
+	}
+}
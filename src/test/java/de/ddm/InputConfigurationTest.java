@@ -0,0 +1,79 @@
+package de.ddm;
+
+import com.opencsv.CSVReader;
+import de.ddm.configuration.CsvReaderType;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.configuration.RecordReader;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class InputConfigurationTest {
+
+	// Quoted values with line breaks, escaped and doubled quotes inside and outside of quotes, escaped escapes and separators, quotes
+	// in the middle of unquoted values, which OpenCSV keeps and takes as the start of a quoted part, and whitespace before a quote
+	private static final String RECORDS = String.join("\n",
+			"1;ab\\\"cd;x",
+			"2;\"multi",
+			"line\";y",
+			"3;\"say \"\"hi\"\"\\\" and",
+			"more\";z",
+			"4;e\\\\;\"\\\\\"",
+			"5;ab\"c",
+			"d\"ef;\"with ; separator\"",
+			"6;\"\";",
+			"7;a\\;b;\"x\r\ny\"",
+			"8;plain;w",
+			"9;b\"c\"d;e",
+			"10; \"q\";r") + "\n";
+
+	@Test
+	public void testSplitsAreRecordBoundaries() throws Exception {
+		File file = File.createTempFile("splits", ".csv");
+		try {
+			Files.write(file.toPath(), RECORDS.getBytes(StandardCharsets.UTF_8));
+			InputConfiguration configuration = new InputConfiguration();
+			for (boolean ignoreLeadingWhitespace : new boolean[]{false, true}) {
+				configuration.setValueIgnoreLeadingWhitespace(ignoreLeadingWhitespace);
+				List<List<String>> expected = readAll(configuration, file);
+
+				// Every split size puts the split offsets at other line breaks, and each must be a record boundary; every reader must
+				// read the same records from the splits as OpenCSV reads from the whole file
+				for (CsvReaderType csvReaderType : CsvReaderType.values()) {
+					configuration.setCsvReaderType(csvReaderType);
+					for (long splitSize = 1; splitSize <= file.length(); splitSize++) {
+						long[] splitOffsets = configuration.getSplitOffsets(file, splitSize);
+						List<List<String>> records = new ArrayList<>();
+						for (int split = 0; split < splitOffsets.length - 1; split++) {
+							try (RecordReader reader = configuration.createRecordReader(file, splitOffsets[split], splitOffsets[split + 1])) {
+								String[] record;
+								while ((record = reader.readNext()) != null)
+									records.add(Arrays.asList(record));
+							}
+						}
+						assertEquals(csvReaderType + " with split size " + splitSize + (ignoreLeadingWhitespace ? " ignoring leading whitespace" : ""), expected, records);
+					}
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static List<List<String>> readAll(InputConfiguration configuration, File file) throws Exception {
+		List<List<String>> records = new ArrayList<>();
+		try (CSVReader reader = configuration.createCSVReader(file)) {
+			String[] record;
+			while ((record = reader.readNext()) != null)
+				records.add(Arrays.asList(record));
+		}
+		return records;
+	}
+}
@@ -8,16 +8,44 @@ import de.ddm.singletons.SystemConfigurationSingleton;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.junit.After;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class LargeMessageProxyTest {
 
 	@ClassRule
 	public static final TestKitJunitResource testKit = new TestKitJunitResource(SystemConfigurationSingleton.get().toAkkaTestConfig());
 
+	// The tests change the configuration of the proxies, which is static, so every test restores these defaults afterwards
+	private static final int MAX_MESSAGE_SIZE = LargeMessageProxy.MAX_MESSAGE_SIZE;
+	private static final int WINDOW_SIZE = LargeMessageProxy.WINDOW_SIZE;
+	private static final boolean COMPRESSION = LargeMessageProxy.COMPRESSION;
+	private static final boolean LOCAL_SHORT_CIRCUIT = LargeMessageProxy.LOCAL_SHORT_CIRCUIT;
+	private static final long MAX_BUFFERED_BYTES = LargeMessageProxy.MAX_BUFFERED_BYTES;
+	private static final long MAX_RECEIVE_DELAY = LargeMessageProxy.MAX_RECEIVE_DELAY;
+	private static final long MAX_TRANSFER_SIZE = LargeMessageProxy.MAX_TRANSFER_SIZE;
+
+	@After
+	public void resetConfiguration() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = MAX_MESSAGE_SIZE;
+		LargeMessageProxy.WINDOW_SIZE = WINDOW_SIZE;
+		LargeMessageProxy.COMPRESSION = COMPRESSION;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = LOCAL_SHORT_CIRCUIT;
+		LargeMessageProxy.MAX_BUFFERED_BYTES = MAX_BUFFERED_BYTES;
+		LargeMessageProxy.MAX_RECEIVE_DELAY = MAX_RECEIVE_DELAY;
+		LargeMessageProxy.MAX_TRANSFER_SIZE = MAX_TRANSFER_SIZE;
+	}
+
 	@Data
 	@NoArgsConstructor
 	@AllArgsConstructor
@@ -45,6 +73,7 @@ public class LargeMessageProxyTest {
 	@Test
 	public void testLargeMessageSending() {
 		LargeMessageProxy.MAX_MESSAGE_SIZE = 2;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
 
 		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
 
@@ -59,8 +88,316 @@ public class LargeMessageProxyTest {
 		probe.expectNoMessage();
 	}
 
+	@Test
+	public void testWindowedSending() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 3;
+		LargeMessageProxy.WINDOW_SIZE = 4;
+		LargeMessageProxy.COMPRESSION = false;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> receiverProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "windowedSender_" + LargeMessageProxy.DEFAULT_NAME);
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(new MyLargeMessage(), receiverProbe.getRef()));
+
+		// No chunk is sent before the receiver acknowledged the connection
+		LargeMessageProxy.ConnectMessage connectMessage = receiverProbe.expectMessageClass(LargeMessageProxy.ConnectMessage.class);
+		assertTrue(connectMessage.getNumChunks() > LargeMessageProxy.WINDOW_SIZE + 1);
+		receiverProbe.expectNoMessage();
+
+		// The acknowledged connection opens the whole window at once, and every acknowledged chunk lets exactly one more follow
+		senderLargeMessageProxy.tell(new LargeMessageProxy.ConnectAckMessage(connectMessage.getSenderTransmissionKey(), 0));
+		for (int chunk = 0; chunk < LargeMessageProxy.WINDOW_SIZE; chunk++)
+			assertEquals(chunk, receiverProbe.expectMessageClass(LargeMessageProxy.BytesMessage.class).getChunk());
+		receiverProbe.expectNoMessage();
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.BytesAckMessage(connectMessage.getSenderTransmissionKey(), 0));
+		assertEquals(LargeMessageProxy.WINDOW_SIZE, receiverProbe.expectMessageClass(LargeMessageProxy.BytesMessage.class).getChunk());
+		receiverProbe.expectNoMessage();
+	}
+
+	@Test
+	public void testCompressedSending() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 100;
+		LargeMessageProxy.COMPRESSION = true;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> receiverProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "compressingSender_" + LargeMessageProxy.DEFAULT_NAME);
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "compressingReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// A repetitive text compresses well, so its chunks are sent compressed; the probe passes them on to the receiver to decompress
+		LargeMessageProxy.LargeMessage message = new MyLargeMessage(new String(new char[1000]).replace("\0", "1998-12-01|N|O|"));
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(message, receiverProbe.getRef()));
+
+		LargeMessageProxy.ConnectMessage connectMessage = receiverProbe.expectMessageClass(LargeMessageProxy.ConnectMessage.class);
+		receiverLargeMessageProxy.tell(connectMessage);
+		for (int chunk = 0; chunk < connectMessage.getNumChunks(); chunk++) {
+			LargeMessageProxy.BytesMessage bytesMessage = receiverProbe.expectMessageClass(LargeMessageProxy.BytesMessage.class);
+			// Only the last chunk may be too short to shrink
+			if (chunk < connectMessage.getNumChunks() - 1)
+				assertTrue(bytesMessage.getBytes().length < bytesMessage.getLength());
+			receiverLargeMessageProxy.tell(bytesMessage);
+		}
+
+		probe.expectMessage(message);
+		probe.expectNoMessage();
+		receiverProbe.expectNoMessage();
+	}
+
+	@Test
+	public void testMalformedChunks() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 100;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> senderProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "malformedSender_" + LargeMessageProxy.DEFAULT_NAME);
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "malformedReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// Bytes that are not LZ4 data, lengths that the bytes cannot have, and chunks of unknown transfers are dropped
+		byte[] bytes = new byte[50];
+		Arrays.fill(bytes, (byte) -1);
+		String manifest = MyLargeMessage.class.getName();
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(bytes, 100, manifest));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(bytes, -1, manifest));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(bytes, Integer.MAX_VALUE, manifest));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.BytesMessage(bytes, 0, 100, 0, 42));
+
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(0, senderProbe.getRef(), 200, 2, manifest, LargeMessageProxy.Priority.NORMAL));
+		LargeMessageProxy.ConnectAckMessage connectAckMessage = senderProbe.expectMessageClass(LargeMessageProxy.ConnectAckMessage.class);
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.BytesMessage(bytes, 0, 100, 0, connectAckMessage.getReceiverTransmissionKey()));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.BytesMessage(bytes, 1, 100, 0, connectAckMessage.getReceiverTransmissionKey()));
+
+		// Only the first chunk of the transfer is dropped as malformed, which the sender is told; the second belongs to no transfer anymore
+		assertEquals(0, senderProbe.expectMessageClass(LargeMessageProxy.AbortMessage.class).getSenderTransmissionKey());
+		probe.expectNoMessage();
+		senderProbe.expectNoMessage();
+
+		// The proxy survives all of them
+		LargeMessageProxy.LargeMessage message = new MyLargeMessage();
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(message, receiverLargeMessageProxy));
+
+		probe.expectMessage(message);
+		probe.expectNoMessage();
+	}
+
+	@Test
+	public void testInvalidConnections() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 100;
+		LargeMessageProxy.MAX_TRANSFER_SIZE = 1000;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> senderProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "rejectingReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// Sizes that are impossible or above the cap and chunk counts that do not match the size are rejected right away
+		String manifest = MyLargeMessage.class.getName();
+		long[][] sizesAndChunks = {{-1, 1}, {0, 0}, {2000, 20}, {200, 1}, {200, 3}, {200, -1}, {200, Integer.MAX_VALUE}};
+		for (int transfer = 0; transfer < sizesAndChunks.length; transfer++) {
+			receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(transfer, senderProbe.getRef(), sizesAndChunks[transfer][0], (int) sizesAndChunks[transfer][1], manifest, LargeMessageProxy.Priority.NORMAL));
+			assertEquals(transfer, senderProbe.expectMessageClass(LargeMessageProxy.AbortMessage.class).getSenderTransmissionKey());
+		}
+
+		// Exactly the chunks that the size needs are accepted
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(sizesAndChunks.length, senderProbe.getRef(), 200, 2, manifest, LargeMessageProxy.Priority.NORMAL));
+		assertEquals(sizesAndChunks.length, senderProbe.expectMessageClass(LargeMessageProxy.ConnectAckMessage.class).getSenderTransmissionKey());
+		senderProbe.expectNoMessage();
+		probe.expectNoMessage();
+	}
+
+	private static final AtomicBoolean POISONED_INITIALIZED = new AtomicBoolean(false);
+
+	public static class Poisoned {
+		static {
+			POISONED_INITIALIZED.set(true);
+		}
+	}
+
+	@Test
+	public void testInvalidMessages() {
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> senderProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "invalidReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// Classes that are unknown or no LargeMessages are neither initialized nor deserialized, and bytes that are no CBOR are dropped
+		byte[] emptyMap = {(byte) 0xA0};
+		byte[] noCbor = {(byte) 0xFF, (byte) 0xFF};
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(emptyMap, 1, Poisoned.class.getName()));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(emptyMap, 1, "de.ddm.NoSuchMessage"));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(emptyMap, 1, null));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(noCbor, 2, MyLargeMessage.class.getName()));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(0, senderProbe.getRef(), 200000, 2, Poisoned.class.getName(), LargeMessageProxy.Priority.NORMAL));
+		assertEquals(0, senderProbe.expectMessageClass(LargeMessageProxy.AbortMessage.class).getSenderTransmissionKey());
+		probe.expectNoMessage();
+		assertFalse(POISONED_INITIALIZED.get());
+
+		// The proxy survives all of them
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.DirectBytesMessage(emptyMap, 1, MyLargeMessage.class.getName()));
+		probe.expectMessage(new MyLargeMessage());
+		probe.expectNoMessage();
+	}
+
+	@Test
+	public void testAdmissionControl() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 10;
+		LargeMessageProxy.MAX_BUFFERED_BYTES = 1;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> receiverProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "admittingSender_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// Every transfer exceeds the buffer on its own, so the sender admits one after the other, and the urgent one before the second
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(new MyLargeMessage("first"), receiverProbe.getRef()));
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(new MyLargeMessage("second"), receiverProbe.getRef()));
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(new MyLargeMessage("urgent"), receiverProbe.getRef(), LargeMessageProxy.Priority.HIGH));
+
+		LargeMessageProxy.ConnectMessage firstConnectMessage = receiverProbe.expectMessageClass(LargeMessageProxy.ConnectMessage.class);
+		receiverProbe.expectNoMessage();
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.ConnectAckMessage(firstConnectMessage.getSenderTransmissionKey(), 0));
+		LargeMessageProxy.ConnectMessage urgentConnectMessage = expectConnectAfterChunks(receiverProbe, firstConnectMessage.getNumChunks());
+		assertEquals(LargeMessageProxy.Priority.HIGH, urgentConnectMessage.getPriority());
+		receiverProbe.expectNoMessage();
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.ConnectAckMessage(urgentConnectMessage.getSenderTransmissionKey(), 1));
+		LargeMessageProxy.ConnectMessage secondConnectMessage = expectConnectAfterChunks(receiverProbe, urgentConnectMessage.getNumChunks());
+		assertEquals(LargeMessageProxy.Priority.NORMAL, secondConnectMessage.getPriority());
+		receiverProbe.expectNoMessage();
+	}
+
+	@Test
+	public void testAbortedSending() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 10;
+		LargeMessageProxy.MAX_BUFFERED_BYTES = 1;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> receiverProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "abortedSender_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// The second transfer waits for the buffer that the first one holds
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(new MyLargeMessage("first"), receiverProbe.getRef()));
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(new MyLargeMessage("second"), receiverProbe.getRef()));
+		LargeMessageProxy.ConnectMessage firstConnectMessage = receiverProbe.expectMessageClass(LargeMessageProxy.ConnectMessage.class);
+		receiverProbe.expectNoMessage();
+
+		// The aborted transfer releases its buffer for the second one, and none of its chunks are sent anymore
+		senderLargeMessageProxy.tell(new LargeMessageProxy.AbortMessage(firstConnectMessage.getSenderTransmissionKey(), "test"));
+		LargeMessageProxy.ConnectMessage secondConnectMessage = receiverProbe.expectMessageClass(LargeMessageProxy.ConnectMessage.class);
+		assertTrue(secondConnectMessage.getSenderTransmissionKey() != firstConnectMessage.getSenderTransmissionKey());
+		senderLargeMessageProxy.tell(new LargeMessageProxy.ConnectAckMessage(firstConnectMessage.getSenderTransmissionKey(), 0));
+		receiverProbe.expectNoMessage();
+	}
+
+	private static LargeMessageProxy.ConnectMessage expectConnectAfterChunks(TestProbe<LargeMessageProxy.Message> receiverProbe, int numChunks) {
+		for (int chunk = 0; chunk < numChunks; chunk++)
+			receiverProbe.expectMessageClass(LargeMessageProxy.BytesMessage.class);
+		return receiverProbe.expectMessageClass(LargeMessageProxy.ConnectMessage.class);
+	}
+
+	@Test
+	public void testReceiveAdmission() throws InterruptedException {
+		LargeMessageProxy.MAX_BUFFERED_BYTES = 100;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> senderProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "admittingReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// An empty CBOR map, padded to the announced size, deserializes into the default message
+		byte[] bytes = new byte[50];
+		bytes[0] = (byte) 0xA0;
+		String manifest = MyLargeMessage.class.getName();
+
+		// While the first transfer holds half of the buffer, the large one does not fit and the small one is admitted before it
+		LargeMessageProxy.MAX_RECEIVE_DELAY = Long.MAX_VALUE;
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(0, senderProbe.getRef(), 50, 1, manifest, LargeMessageProxy.Priority.NORMAL));
+		LargeMessageProxy.ConnectAckMessage connectAckMessage = senderProbe.expectMessageClass(LargeMessageProxy.ConnectAckMessage.class);
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(1, senderProbe.getRef(), 1000, 1, manifest, LargeMessageProxy.Priority.NORMAL));
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(2, senderProbe.getRef(), 50, 1, manifest, LargeMessageProxy.Priority.NORMAL));
+		LargeMessageProxy.ConnectAckMessage smallConnectAckMessage = senderProbe.expectMessageClass(LargeMessageProxy.ConnectAckMessage.class);
+		assertEquals(2, smallConnectAckMessage.getSenderTransmissionKey());
+		senderProbe.expectNoMessage();
+
+		// Once the large transfer waited too long, it is next, and the small transfer that arrives now waits until the large one was received
+		LargeMessageProxy.MAX_RECEIVE_DELAY = 0;
+		Thread.sleep(10);
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.ConnectMessage(3, senderProbe.getRef(), 50, 1, manifest, LargeMessageProxy.Priority.NORMAL));
+		senderProbe.expectNoMessage();
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.BytesMessage(bytes, 0, bytes.length, 0, connectAckMessage.getReceiverTransmissionKey()));
+		probe.expectMessage(new MyLargeMessage());
+		senderProbe.expectNoMessage();
+
+		receiverLargeMessageProxy.tell(new LargeMessageProxy.BytesMessage(bytes, 0, bytes.length, 2, smallConnectAckMessage.getReceiverTransmissionKey()));
+		probe.expectMessage(new MyLargeMessage());
+		assertEquals(1, senderProbe.expectMessageClass(LargeMessageProxy.ConnectAckMessage.class).getSenderTransmissionKey());
+		senderProbe.expectNoMessage();
+	}
+
+	@Test
+	public void testDirectSending() {
+		LargeMessageProxy.MAX_MESSAGE_SIZE = 100000;
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+		TestProbe<LargeMessageProxy.Message> receiverProbe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "directSender_" + LargeMessageProxy.DEFAULT_NAME);
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "directReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		// The message fits into one chunk, so it is sent as a single DirectBytesMessage without a connection
+		LargeMessageProxy.LargeMessage message = new MyLargeMessage();
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(message, receiverProbe.getRef()));
+
+		LargeMessageProxy.DirectBytesMessage directBytesMessage = receiverProbe.expectMessageClass(LargeMessageProxy.DirectBytesMessage.class);
+		receiverProbe.expectNoMessage();
+
+		receiverLargeMessageProxy.tell(directBytesMessage);
+
+		probe.expectMessage(message);
+		probe.expectNoMessage();
+	}
+
+	@Test
+	public void testLocalShortCircuit() {
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = true;
+
+		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
+
+		ActorRef<LargeMessageProxy.Message> senderLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "localSender_" + LargeMessageProxy.DEFAULT_NAME);
+		ActorRef<LargeMessageProxy.Message> receiverLargeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), "localReceiver_" + LargeMessageProxy.DEFAULT_NAME);
+
+		LargeMessageProxy.LargeMessage message = new MyLargeMessage();
+
+		senderLargeMessageProxy.tell(new LargeMessageProxy.SendMessage(message, receiverLargeMessageProxy));
+
+		// The receiver in the same ActorSystem gets the very same object
+		assertSame(message, probe.receiveMessage());
+		probe.expectNoMessage();
+	}
+
 	@Test
 	public void testProtocol() {
+		LargeMessageProxy.LOCAL_SHORT_CIRCUIT = false;
+
 		TestProbe<LargeMessageProxy.LargeMessage> probe = testKit.createTestProbe();
 
 		ActorRef<LargeMessageProxy.Message> largeMessageProxy = testKit.spawn(LargeMessageProxy.create(probe.getRef()), LargeMessageProxy.DEFAULT_NAME);
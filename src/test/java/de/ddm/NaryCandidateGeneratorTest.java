@@ -0,0 +1,148 @@
+package de.ddm;
+
+import de.ddm.actors.profiling.NaryCandidateGenerator;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NaryCandidateGeneratorTest {
+
+	@Test
+	public void testCombinesValidInds() {
+		// A and B of the first file are both in C and D of the second file, but only A in E of the third file
+		int[] columnFiles = {0, 0, 1, 1, 2};
+		List<int[]> validInds = Arrays.asList(new int[]{0, 2}, new int[]{0, 3}, new int[]{0, 4}, new int[]{1, 2}, new int[]{1, 3});
+		List<int[]> candidates = NaryCandidateGenerator.generate(validInds, columnFiles);
+		assertEquals(2, candidates.size());
+		assertTrue(Arrays.equals(new int[]{0, 1, 2, 3}, candidates.get(0)) || Arrays.equals(new int[]{0, 1, 2, 3}, candidates.get(1)));
+		assertTrue(Arrays.equals(new int[]{0, 1, 3, 2}, candidates.get(0)) || Arrays.equals(new int[]{0, 1, 3, 2}, candidates.get(1)));
+
+		// The ternary candidate needs all three of its binary subsets
+		List<int[]> binaryInds = Arrays.asList(new int[]{0, 1, 3, 4}, new int[]{0, 2, 3, 5}, new int[]{1, 2, 4, 5});
+		int[] twoFiles = {0, 0, 0, 1, 1, 1};
+		assertEquals(1, NaryCandidateGenerator.generate(binaryInds, twoFiles).size());
+		assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, NaryCandidateGenerator.generate(binaryInds, twoFiles).get(0));
+		assertEquals(0, NaryCandidateGenerator.generate(binaryInds.subList(0, 2), twoFiles).size());
+	}
+
+	@Test
+	public void testLevelWiseDiscovery() {
+		Random random = new Random(42);
+		for (int round = 0; round < 50; round++) {
+			// Few distinct values, so that there are valid INDs of every arity; the second file repeats some rows of the first
+			int[][][] files = new int[2][][];
+			files[0] = randomRows(random, 3 + random.nextInt(4), 4, 3);
+			files[1] = randomRows(random, 6 + random.nextInt(6), 5, 3);
+			for (int row = 0; row < files[0].length; row++)
+				if (random.nextBoolean())
+					System.arraycopy(files[0][row], 0, files[1][row], 0, files[0][row].length);
+			int[] columnFiles = {0, 0, 0, 0, 1, 1, 1, 1, 1};
+			int[] columnPositions = {0, 1, 2, 3, 0, 1, 2, 3, 4};
+
+			List<int[]> validInds = findValidInds(1, files, columnFiles, columnPositions);
+			for (int arity = 1; !validInds.isEmpty(); arity++) {
+				List<int[]> candidates = NaryCandidateGenerator.generate(validInds, columnFiles);
+				for (int i = 1; i < candidates.size(); i++)
+					assertTrue(Arrays.compare(candidates.get(i - 1), 0, arity + 1, candidates.get(i), 0, arity + 1) <= 0);
+
+				// Every valid IND of the next arity must be among the candidates, so validating them finds all of them
+				List<int[]> nextValidInds = new ArrayList<>();
+				for (int[] candidate : candidates)
+					if (isValid(candidate, files, columnFiles, columnPositions))
+						nextValidInds.add(candidate);
+				assertEquals(toSet(findValidInds(arity + 1, files, columnFiles, columnPositions)), toSet(nextValidInds));
+				validInds = nextValidInds;
+			}
+		}
+	}
+
+	private static int[][] randomRows(Random random, int numRows, int numColumns, int numValues) {
+		int[][] rows = new int[numRows][numColumns];
+		for (int[] row : rows)
+			for (int column = 0; column < numColumns; column++)
+				row[column] = random.nextInt(numValues);
+		return rows;
+	}
+
+	/**
+	 * @return all valid INDs of the arity by checking every combination of ascending dependent columns with distinct referenced columns
+	 */
+	private static List<int[]> findValidInds(int arity, int[][][] files, int[] columnFiles, int[] columnPositions) {
+		List<int[]> validInds = new ArrayList<>();
+		for (int[] dependent : combinations(columnFiles.length, arity, true))
+			for (int[] referenced : combinations(columnFiles.length, arity, false)) {
+				int[] ind = new int[2 * arity];
+				System.arraycopy(dependent, 0, ind, 0, arity);
+				System.arraycopy(referenced, 0, ind, arity, arity);
+				if (isValid(ind, files, columnFiles, columnPositions))
+					validInds.add(ind);
+			}
+		return validInds;
+	}
+
+	private static List<int[]> combinations(int numColumns, int arity, boolean ascending) {
+		List<int[]> combinations = new ArrayList<>();
+		combine(new int[arity], 0, numColumns, ascending, combinations);
+		return combinations;
+	}
+
+	private static void combine(int[] columns, int position, int numColumns, boolean ascending, List<int[]> combinations) {
+		if (position == columns.length) {
+			combinations.add(columns.clone());
+			return;
+		}
+		for (int column = ascending && position > 0 ? columns[position - 1] + 1 : 0; column < numColumns; column++) {
+			boolean used = false;
+			for (int i = 0; i < position; i++)
+				used |= columns[i] == column;
+			if (used)
+				continue;
+			columns[position] = column;
+			combine(columns, position + 1, numColumns, ascending, combinations);
+		}
+	}
+
+	/**
+	 * @return True if the dependent columns are from one file, the referenced columns are from one file, no column references itself,
+	 * and every combination of values of the dependent columns occurs in the referenced columns
+	 */
+	private static boolean isValid(int[] ind, int[][][] files, int[] columnFiles, int[] columnPositions) {
+		int arity = ind.length / 2;
+		for (int i = 0; i < arity; i++)
+			if (ind[i] == ind[arity + i] || columnFiles[ind[i]] != columnFiles[ind[0]] || columnFiles[ind[arity + i]] != columnFiles[ind[arity]])
+				return false;
+		Set<List<Integer>> referencedValues = new HashSet<>();
+		for (int[] row : files[columnFiles[ind[arity]]]) {
+			List<Integer> values = new ArrayList<>();
+			for (int i = arity; i < 2 * arity; i++)
+				values.add(row[columnPositions[ind[i]]]);
+			referencedValues.add(values);
+		}
+		for (int[] row : files[columnFiles[ind[0]]]) {
+			List<Integer> values = new ArrayList<>();
+			for (int i = 0; i < arity; i++)
+				values.add(row[columnPositions[ind[i]]]);
+			if (!referencedValues.contains(values))
+				return false;
+		}
+		return true;
+	}
+
+	private static Set<IntArrayList> toSet(List<int[]> inds) {
+		Set<IntArrayList> set = new HashSet<>();
+		for (int[] ind : inds)
+			set.add(new IntArrayList(ind));
+		assertEquals(inds.size(), set.size());
+		return set;
+	}
+}
@@ -0,0 +1,98 @@
+package de.ddm;
+
+import de.ddm.actors.profiling.Column;
+import de.ddm.actors.profiling.PruningRule;
+import de.ddm.structures.ValueDictionary;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PruningRuleTest {
+
+	// Values of all types and lengths, with negative numbers, decimals and text that sort between the numbers
+	private static final String[] VALUES = {null, "", "-3", "-12", "0", "1", "10", "1.5", "2", "2.25", "20", "3", "30", "300", "4.0",
+			"a", "ab", "abc", "B", "b", "x1", "x10", "x2", "ü", "1a", "+7", "07", "."};
+
+	@Test
+	public void testNoRefutationOfValidCandidates() {
+		Random random = new Random(42);
+		int validCandidates = 0;
+		for (int round = 0; round < 100; round++) {
+			try (ValueDictionary dictionary = new ValueDictionary()) {
+				List<Set<String>> columnValues = randomColumns(random);
+				List<Column> columns = new ArrayList<>();
+				for (int column = 0; column < columnValues.size(); column++)
+					columns.add(createColumn(column, columnValues.get(column), dictionary));
+
+				for (int dependent = 0; dependent < columns.size(); dependent++) {
+					for (int referenced = 0; referenced < columns.size(); referenced++) {
+						if (dependent == referenced || !columnValues.get(referenced).containsAll(columnValues.get(dependent)))
+							continue;
+						validCandidates++;
+						for (PruningRule rule : PruningRule.values())
+							assertFalse(rule + " refutes " + columnValues.get(dependent) + " in " + columnValues.get(referenced),
+									rule.refutes(columns.get(dependent), columns.get(referenced)));
+					}
+				}
+			}
+		}
+		assertTrue(validCandidates > 1000);
+	}
+
+	@Test
+	public void testRefutationOfInvalidCandidates() {
+		try (ValueDictionary dictionary = new ValueDictionary()) {
+			assertTrue(refutes(PruningRule.DISTINCT_COUNT, dictionary, new String[]{"1", "2", "3"}, new String[]{"1", "2"}));
+			assertTrue(refutes(PruningRule.VALUE_RANGE, dictionary, new String[]{"1", "3"}, new String[]{"2", "5"}));
+			assertTrue(refutes(PruningRule.VALUE_RANGE, dictionary, new String[]{"2", "6"}, new String[]{"2", "5"}));
+			assertTrue(refutes(PruningRule.VALUE_RANGE, dictionary, new String[]{"2"}, new String[]{null}));
+			assertFalse(refutes(PruningRule.VALUE_RANGE, dictionary, new String[]{null}, new String[]{"2"}));
+			assertTrue(refutes(PruningRule.VALUE_TYPE, dictionary, new String[]{"1.5"}, new String[]{"1", "2"}));
+			assertTrue(refutes(PruningRule.VALUE_TYPE, dictionary, new String[]{"x"}, new String[]{"1.5", "2"}));
+			assertFalse(refutes(PruningRule.VALUE_TYPE, dictionary, new String[]{"1"}, new String[]{"1.5", "x"}));
+			assertTrue(refutes(PruningRule.VALUE_LENGTH, dictionary, new String[]{"abc"}, new String[]{"ab", "b"}));
+		}
+	}
+
+	/**
+	 * @return columns with random values from random windows of the values, half of which are subsets of an earlier column
+	 */
+	private static List<Set<String>> randomColumns(Random random) {
+		List<String> values = new ArrayList<>(Arrays.asList(VALUES));
+		List<Set<String>> columns = new ArrayList<>();
+		int numColumns = 2 + random.nextInt(10);
+		for (int column = 0; column < numColumns; column++) {
+			List<String> domain = values;
+			if (column > 0 && random.nextBoolean())
+				domain = new ArrayList<>(columns.get(random.nextInt(column)));
+			int start = domain.isEmpty() ? 0 : random.nextInt(domain.size());
+			int end = start + random.nextInt(domain.size() - start + 1);
+			Set<String> columnValues = new HashSet<>();
+			for (String value : domain.subList(start, end))
+				if (random.nextInt(3) > 0)
+					columnValues.add(value);
+			columns.add(columnValues);
+		}
+		return columns;
+	}
+
+	private static Column createColumn(int id, Iterable<String> values, ValueDictionary dictionary) {
+		Column column = new Column(id, "c" + id, "file");
+		for (String value : values)
+			column.addValueToColumn(dictionary.encode(value), value);
+		column.seal();
+		return column;
+	}
+
+	private static boolean refutes(PruningRule rule, ValueDictionary dictionary, String[] dependentValues, String[] referencedValues) {
+		return rule.refutes(createColumn(0, Arrays.asList(dependentValues), dictionary), createColumn(1, Arrays.asList(referencedValues), dictionary));
+	}
+}
@@ -0,0 +1,175 @@
+package de.ddm;
+
+import de.ddm.actors.profiling.Column;
+import de.ddm.actors.profiling.Spider;
+import de.ddm.structures.ValueDictionary;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpiderTest {
+
+	@Test
+	public void testSmallColumns() {
+		int[][] columnValues = {{1, 3, 5}, {1, 2, 3, 4, 5}, {3}, {}, {1, 3, 5}, {6, 7}};
+		long[][] referenced = Spider.validate(columnValues);
+		assertEquals(BitSet.valueOf(new long[]{0b10010}), BitSet.valueOf(referenced[0]));
+		assertEquals(new BitSet(), BitSet.valueOf(referenced[1]));
+		assertEquals(BitSet.valueOf(new long[]{0b10011}), BitSet.valueOf(referenced[2]));
+		// An empty column is contained in every other column
+		assertEquals(BitSet.valueOf(new long[]{0b110111}), BitSet.valueOf(referenced[3]));
+		assertEquals(BitSet.valueOf(new long[]{0b00011}), BitSet.valueOf(referenced[4]));
+		assertEquals(new BitSet(), BitSet.valueOf(referenced[5]));
+	}
+
+	@Test
+	public void testRandomColumns() {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			int[][] columnValues = randomColumns(random, 1 + random.nextInt(80));
+			assertResults(columnValues, null, Spider.validate(columnValues));
+		}
+	}
+
+	@Test
+	public void testCandidates() {
+		Random random = new Random(7);
+		for (int round = 0; round < 200; round++) {
+			int[][] columnValues = randomColumns(random, 1 + random.nextInt(80));
+			long[][] candidates = new long[columnValues.length][];
+			for (int dependent = 0; dependent < columnValues.length; dependent++) {
+				BitSet referenced = new BitSet(columnValues.length);
+				for (int column = 0; column < columnValues.length; column++)
+					if (random.nextInt(3) > 0)
+						referenced.set(column);
+				candidates[dependent] = referenced.toLongArray();
+			}
+			assertResults(columnValues, candidates, Spider.validate(columnValues, candidates));
+		}
+	}
+
+	@Test
+	public void testBuckets() {
+		Random random = new Random(13);
+		for (int round = 0; round < 50; round++) {
+			int[][] columnValues = randomColumns(random, 1 + random.nextInt(40));
+			long[][] expected = Spider.validate(columnValues);
+			for (int numBuckets : new int[]{1, 2, 3, 8, 64}) {
+				Column[][] columnBuckets = new Column[columnValues.length][];
+				for (int column = 0; column < columnValues.length; column++) {
+					Column sealed = new Column(column, "c" + column, "file");
+					for (int value : columnValues[column])
+						sealed.addValueToColumn(value, Integer.toString(value));
+					sealed.seal();
+					columnBuckets[column] = sealed.partition(numBuckets);
+					assertBucketsCover(columnValues[column], columnBuckets[column]);
+				}
+
+				// BINDER validates every bucket on the global ids and DISTRIBUTED on ids that its worker assigned to the bucket's values
+				// in the order in which they arrived; a candidate is valid if it is valid in every bucket
+				long[][] binder = new long[columnValues.length][];
+				long[][] distributed = new long[columnValues.length][];
+				for (int bucket = 0; bucket < numBuckets; bucket++) {
+					int[][] bucketValues = new int[columnValues.length][];
+					for (int column = 0; column < columnValues.length; column++)
+						bucketValues[column] = columnBuckets[column][bucket].getValues();
+					intersect(binder, Spider.validate(bucketValues));
+					intersect(distributed, Spider.validate(encodeLocally(bucketValues, random)));
+				}
+				for (int dependent = 0; dependent < columnValues.length; dependent++) {
+					assertEquals(BitSet.valueOf(expected[dependent]), BitSet.valueOf(binder[dependent]));
+					assertEquals(BitSet.valueOf(expected[dependent]), BitSet.valueOf(distributed[dependent]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Every value of the column must be in exactly one bucket, and the values of every bucket must be sorted
+	 */
+	private static void assertBucketsCover(int[] values, Column[] buckets) {
+		List<Integer> bucketValues = new ArrayList<>();
+		for (Column bucket : buckets) {
+			int[] sorted = bucket.getValues().clone();
+			Arrays.sort(sorted);
+			assertArrayEquals(sorted, bucket.getValues());
+			for (int value : bucket.getValues())
+				bucketValues.add(value);
+		}
+		Collections.sort(bucketValues);
+		assertArrayEquals(values, bucketValues.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	/**
+	 * @return the values with new ids from a dictionary that sees them column by column in a random order
+	 */
+	private static int[][] encodeLocally(int[][] columnValues, Random random) {
+		int[][] localValues = new int[columnValues.length][];
+		try (ValueDictionary dictionary = new ValueDictionary()) {
+			for (int column = 0; column < columnValues.length; column++) {
+				List<Integer> values = new ArrayList<>();
+				for (int value : columnValues[column])
+					values.add(value);
+				Collections.shuffle(values, random);
+				localValues[column] = values.stream().mapToInt(value -> dictionary.encode(Integer.toString(value))).sorted().toArray();
+			}
+		}
+		return localValues;
+	}
+
+	private static void intersect(long[][] result, long[][] bucketResult) {
+		for (int dependent = 0; dependent < result.length; dependent++) {
+			if (result[dependent] == null) {
+				result[dependent] = bucketResult[dependent];
+			} else {
+				BitSet referenced = BitSet.valueOf(result[dependent]);
+				referenced.and(BitSet.valueOf(bucketResult[dependent]));
+				result[dependent] = referenced.toLongArray();
+			}
+		}
+	}
+
+	/**
+	 * @return sorted distinct values from overlapping ranges, so that many columns are contained in others and many are not
+	 */
+	private static int[][] randomColumns(Random random, int numColumns) {
+		int[][] columnValues = new int[numColumns][];
+		for (int column = 0; column < numColumns; column++) {
+			int start = random.nextInt(20);
+			int end = start + random.nextInt(40);
+			int density = 1 + random.nextInt(4);
+			columnValues[column] = IntStream.range(start, end).filter(value -> random.nextInt(density) == 0).toArray();
+		}
+		return columnValues;
+	}
+
+	/**
+	 * Checks the results of SPIDER against the containment of every candidate on its own
+	 */
+	private static void assertResults(int[][] columnValues, long[][] candidates, long[][] referenced) {
+		assertEquals(columnValues.length, referenced.length);
+		for (int dependent = 0; dependent < columnValues.length; dependent++) {
+			BitSet expected = new BitSet(columnValues.length);
+			for (int column = 0; column < columnValues.length; column++)
+				if (column != dependent && (candidates == null || BitSet.valueOf(candidates[dependent]).get(column)) && isContained(columnValues[dependent], columnValues[column]))
+					expected.set(column);
+			assertArrayEquals(Arrays.toString(columnValues[dependent]), expected.toLongArray(), referenced[dependent]);
+		}
+	}
+
+	private static boolean isContained(int[] dependent, int[] referenced) {
+		for (int value : dependent)
+			if (Arrays.binarySearch(referenced, value) < 0)
+				return false;
+		return true;
+	}
+}
@@ -0,0 +1,159 @@
+package de.ddm;
+
+import de.ddm.actors.profiling.SpilledColumn;
+import de.ddm.actors.profiling.Spider;
+import de.ddm.structures.ValueDictionary;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpilledColumnTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSpillAndMerge() throws IOException {
+		Random random = new Random(42);
+		for (int round = 0; round < 20; round++) {
+			File directory = this.folder.newFolder();
+			List<Set<String>> columnValues = randomColumns(random);
+			List<SpilledColumn> columns = new ArrayList<>();
+			for (int column = 0; column < columnValues.size(); column++) {
+				SpilledColumn spilledColumn = new SpilledColumn(column, directory);
+				// Every value is added several times, and some columns spill after every value, so that their runs are merged in several passes
+				List<String> values = new ArrayList<>(columnValues.get(column));
+				values.addAll(columnValues.get(column));
+				Collections.shuffle(values, random);
+				boolean spillAlways = random.nextInt(4) == 0;
+				for (String value : values) {
+					spilledColumn.add(value);
+					if (spillAlways || random.nextInt(20) == 0)
+						spilledColumn.spill();
+				}
+				columns.add(spilledColumn);
+			}
+
+			SpilledColumn.Cursor[] cursors = new SpilledColumn.Cursor[columns.size()];
+			for (int column = 0; column < cursors.length; column++) {
+				columns.get(column).merge();
+				cursors[column] = columns.get(column).open();
+			}
+			assertTrue(directory.list().length <= columns.size());
+			long[][] referenced;
+			try {
+				referenced = Spider.validate(cursors, null);
+			} finally {
+				for (SpilledColumn.Cursor cursor : cursors)
+					cursor.close();
+			}
+			for (SpilledColumn column : columns)
+				column.delete();
+			assertEquals(0, directory.list().length);
+
+			for (int dependent = 0; dependent < columnValues.size(); dependent++) {
+				BitSet expected = new BitSet();
+				for (int column = 0; column < columnValues.size(); column++)
+					if (column != dependent && columnValues.get(column).containsAll(columnValues.get(dependent)))
+						expected.set(column);
+				assertEquals(expected, BitSet.valueOf(referenced[dependent]));
+			}
+			assertEquals(toBitSets(validateInMemory(columnValues)), toBitSets(referenced));
+		}
+	}
+
+	@Test
+	public void testValueOrder() throws IOException {
+		// The order of the UTF-8 bytes as unsigned numbers, which differs from the order of the Strings for U+FFFD and characters beyond U+FFFF
+		String[] values = {null, "", "A", "a", "ab", "b", "\u007f", "\u00e9", "\u00fc", "\u20ac", "\uFFFD", "\uD83D\uDE00"};
+		File directory = this.folder.newFolder();
+		SpilledColumn.Cursor[] cursors = new SpilledColumn.Cursor[values.length];
+		SpilledColumn allValues = new SpilledColumn(values.length, directory);
+		try {
+			for (int i = 0; i < values.length; i++) {
+				SpilledColumn column = new SpilledColumn(i, directory);
+				column.add(values[i]);
+				column.merge();
+				cursors[i] = column.open();
+				assertTrue(cursors[i].advance());
+
+				allValues.add(values[values.length - 1 - i]);
+				if (i % 3 == 0)
+					allValues.spill();
+			}
+			for (int i = 0; i < values.length; i++)
+				for (int j = 0; j < values.length; j++)
+					assertEquals(values[i] + " and " + values[j], Integer.signum(Integer.compare(i, j)), Integer.signum(cursors[i].compareTo(cursors[j])));
+
+			// The runs are sorted in the same order in which the cursors compare them, so merging them puts all values in this order
+			allValues.merge();
+			try (SpilledColumn.Cursor cursor = allValues.open()) {
+				for (SpilledColumn.Cursor expected : cursors) {
+					assertTrue(cursor.advance());
+					assertEquals(0, cursor.compareTo(expected));
+				}
+				assertFalse(cursor.advance());
+			}
+		} finally {
+			for (SpilledColumn.Cursor cursor : cursors)
+				if (cursor != null)
+					cursor.close();
+		}
+	}
+
+	/**
+	 * @return columns with values from overlapping ranges, including null, the empty value and multi-byte characters
+	 */
+	private static List<Set<String>> randomColumns(Random random) {
+		List<Set<String>> columns = new ArrayList<>();
+		int numColumns = 1 + random.nextInt(12);
+		for (int column = 0; column < numColumns; column++) {
+			Set<String> values = new HashSet<>();
+			int start = random.nextInt(100);
+			int end = start + random.nextInt(200);
+			int density = 1 + random.nextInt(3);
+			for (int value = start; value < end; value++)
+				if (random.nextInt(density) == 0)
+					values.add(value % 10 == 0 ? "ü" + value : Integer.toString(value));
+			if (random.nextBoolean())
+				values.add(null);
+			if (random.nextBoolean())
+				values.add("");
+			columns.add(values);
+		}
+		return columns;
+	}
+
+	/**
+	 * @return the result of SPIDER on the same columns as sorted value ids, as the DependencyMiner does without spilling
+	 */
+	private static long[][] validateInMemory(List<Set<String>> columnValues) {
+		int[][] valueIds = new int[columnValues.size()][];
+		try (ValueDictionary dictionary = new ValueDictionary()) {
+			for (int column = 0; column < valueIds.length; column++)
+				valueIds[column] = columnValues.get(column).stream().mapToInt(dictionary::encode).sorted().toArray();
+		}
+		return Spider.validate(valueIds);
+	}
+
+	private static List<BitSet> toBitSets(long[][] referenced) {
+		List<BitSet> list = new ArrayList<>();
+		for (long[] columns : referenced)
+			list.add(BitSet.valueOf(columns));
+		return list;
+	}
+}
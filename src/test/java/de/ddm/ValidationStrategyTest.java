@@ -0,0 +1,40 @@
+package de.ddm;
+
+import de.ddm.actors.profiling.ValidationStrategy;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationStrategyTest {
+
+	private static final int[] REFERENCED = {1, 3, 5, 7, 9, 11};
+
+	@Test
+	public void testContainedValues() {
+		for (ValidationStrategy strategy : ValidationStrategy.values()) {
+			assertTrue(strategy.name(), strategy.isContained(new int[]{3, 7, 11}, REFERENCED));
+			assertTrue(strategy.name(), strategy.isContained(REFERENCED, REFERENCED));
+			assertTrue(strategy.name(), strategy.isContained(new int[0], REFERENCED));
+		}
+	}
+
+	@Test
+	public void testMissingValues() {
+		for (ValidationStrategy strategy : ValidationStrategy.values()) {
+			assertFalse(strategy.name(), strategy.isContained(new int[]{0, 3}, REFERENCED));
+			assertFalse(strategy.name(), strategy.isContained(new int[]{3, 8}, REFERENCED));
+			assertFalse(strategy.name(), strategy.isContained(new int[]{11, 12}, REFERENCED));
+			assertFalse(strategy.name(), strategy.isContained(new int[]{1}, new int[0]));
+		}
+	}
+
+	@Test
+	public void testOneAgainstManyColumns() {
+		int[][] referenced = {REFERENCED, {3, 7}, {3, 7, 11, 12}, {}, {1, 3, 5}};
+		boolean[] expected = {true, false, true, false, false};
+		for (ValidationStrategy strategy : ValidationStrategy.values())
+			assertArrayEquals(strategy.name(), expected, strategy.findContaining(new int[]{3, 7, 11}, referenced));
+	}
+}
@@ -0,0 +1,45 @@
+package de.ddm;
+
+import de.ddm.structures.ValueDictionary;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ValueDictionaryTest {
+
+	@Test
+	public void testEncodeAndDecode() {
+		try (ValueDictionary dictionary = new ValueDictionary()) {
+			int empty = dictionary.encode("");
+			int none = dictionary.encode(null);
+			int umlaut = dictionary.encode("Grüße");
+			assertNotEquals(empty, none);
+			assertEquals(empty, dictionary.encode(""));
+			assertEquals(none, dictionary.encode(null));
+			assertEquals(umlaut, dictionary.encode("Grüße"));
+			assertEquals("", dictionary.decode(empty));
+			assertNull(dictionary.decode(none));
+			assertEquals("Grüße", dictionary.decode(umlaut));
+			assertEquals(3, dictionary.size());
+		}
+	}
+
+	@Test
+	public void testManyValues() {
+		// Enough values to grow the table several times and to fill more than one page, plus one value that is larger than a page
+		String large = new String(new char[3 << 20]).replace('\0', 'x');
+		try (ValueDictionary dictionary = new ValueDictionary()) {
+			for (int value = 0; value < 200000; value++)
+				assertEquals(value, dictionary.encode("value " + value));
+			assertEquals(200000, dictionary.encode(large));
+			for (int value = 0; value < 200000; value++) {
+				assertEquals(value, dictionary.encode("value " + value));
+				assertEquals("value " + value, dictionary.decode(value));
+			}
+			assertEquals(large, dictionary.decode(200000));
+			assertEquals(200001, dictionary.size());
+		}
+	}
+}